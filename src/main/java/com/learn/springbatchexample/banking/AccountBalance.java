@@ -0,0 +1,46 @@
+package com.learn.springbatchexample.banking;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+
+import java.math.BigDecimal;
+
+/**
+ * Running balance of one account, written in bulk by the AccountLedgerProcessor at
+ * the end of processTransactionStep.
+ */
+
+@Entity
+@Table(name = "account_balance")
+public class AccountBalance {
+
+    @Id
+    private String accountNumber;
+
+    @Column(precision = 19, scale = 2)
+    private BigDecimal balance;
+
+    // Getters and setters
+    public String getAccountNumber() {
+        return accountNumber;
+    }
+    public void setAccountNumber(String accountNumber) {
+        this.accountNumber = accountNumber;
+    }
+    public BigDecimal getBalance() {
+        return balance;
+    }
+    public void setBalance(BigDecimal balance) {
+        this.balance = balance;
+    }
+
+    @Override
+    public String toString() {
+        return "AccountBalance{" +
+                "accountNumber='" + accountNumber + '\'' +
+                ", balance=" + balance +
+                '}';
+    }
+}
@@ -0,0 +1,262 @@
+package com.learn.springbatchexample.banking;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Account balances in an open-addressing hash table held in a direct ByteBuffer, so
+ * tens of millions of accounts cost no heap objects and no GC work. Each 24-byte slot
+ * stores the encoded account number, the balance in cents and the delta in cents: the
+ * sum of the amounts added since the balance was loaded, which is what gets written
+ * back, so changes made to the stored balance meanwhile are kept.
+ * <p>
+ * Account numbers are strings of up to 17 digits. They are encoded as the number
+ * "1" + digits, which keeps leading zeros, and 0 marks an empty slot. A slot also
+ * carries a dirty bit, set when its balance changes and cleared once it has been
+ * flushed. The table is grown at a load of 3/4 and holds at most 2^26 slots (1.5 GB),
+ * about 50 million accounts.
+ */
+public class AccountLedger {
+
+    public interface Entry {
+        void accept(String accountNumber, long balanceCents, long deltaCents, boolean dirty);
+    }
+
+    private static final int SLOT_BYTES = 24;
+    private static final int MAX_SLOTS = 1 << 26;
+    private static final long DIRTY = 1L << 62;
+    private static final int MAX_DIGITS = 17;
+
+    private ByteBuffer slots;
+    private int mask;
+    private int size;
+
+    public AccountLedger(int expectedAccounts) {
+        int capacity = 16;
+        while (capacity < MAX_SLOTS && (long) expectedAccounts * 4 > (long) capacity * 3) {
+            capacity <<= 1;
+        }
+        allocate(capacity);
+    }
+
+    // Adds amountCents to the account's balance and delta and returns the new balance.
+    public long add(String accountNumber, long amountCents) {
+        int slot = slotOf(encode(accountNumber), true);
+        long balance = balanceAt(slot) + amountCents;
+        slots.putLong(slot * SLOT_BYTES + 8, balance);
+        slots.putLong(slot * SLOT_BYTES + 16, deltaAt(slot) + amountCents);
+        slots.putLong(slot * SLOT_BYTES, slots.getLong(slot * SLOT_BYTES) | DIRTY);
+        return balance;
+    }
+
+    // Sets a balance as loaded from the store, with no delta; dirty marks it for the next flush.
+    public void put(String accountNumber, long balanceCents, boolean dirty) {
+        put(accountNumber, balanceCents, 0, dirty);
+    }
+
+    // Sets a balance and its delta as they were at a checkpoint.
+    public void put(String accountNumber, long balanceCents, long deltaCents, boolean dirty) {
+        long key = encode(accountNumber);
+        int slot = slotOf(key, true);
+        slots.putLong(slot * SLOT_BYTES, dirty ? key | DIRTY : key);
+        slots.putLong(slot * SLOT_BYTES + 8, balanceCents);
+        slots.putLong(slot * SLOT_BYTES + 16, deltaCents);
+    }
+
+    public long balance(String accountNumber) {
+        int slot = slotOf(encode(accountNumber), false);
+        return slot < 0 ? 0 : balanceAt(slot);
+    }
+
+    public long delta(String accountNumber) {
+        int slot = slotOf(encode(accountNumber), false);
+        return slot < 0 ? 0 : deltaAt(slot);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public void forEach(Entry consumer) {
+        for (int slot = 0; slot <= mask; slot++) {
+            long stored = slots.getLong(slot * SLOT_BYTES);
+            if (stored != 0) {
+                consumer.accept(decode(stored & ~DIRTY), balanceAt(slot), deltaAt(slot), (stored & DIRTY) != 0);
+            }
+        }
+    }
+
+    // Empties the table, keeping its capacity.
+    public void clear() {
+        for (int slot = 0; slot <= mask; slot++) {
+            slots.putLong(slot * SLOT_BYTES, 0L);
+        }
+        size = 0;
+    }
+
+    public void clearDirty() {
+        for (int slot = 0; slot <= mask; slot++) {
+            slots.putLong(slot * SLOT_BYTES, slots.getLong(slot * SLOT_BYTES) & ~DIRTY);
+        }
+    }
+
+    // Writes every entry to the file, replacing it atomically.
+    public void writeSnapshot(Path file) throws IOException {
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        ByteBuffer buffer = ByteBuffer.allocate(64 * 1024);
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            for (int slot = 0; slot <= mask; slot++) {
+                long stored = slots.getLong(slot * SLOT_BYTES);
+                if (stored == 0) {
+                    continue;
+                }
+                if (buffer.remaining() < SLOT_BYTES) {
+                    writeFully(channel, buffer);
+                }
+                buffer.putLong(stored).putLong(balanceAt(slot)).putLong(deltaAt(slot));
+            }
+            writeFully(channel, buffer);
+            channel.force(false);
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    // Merges the entries of the file into the table, dirty bits included; later files win.
+    public void readSnapshot(Path file) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(64 * 1024);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            int read;
+            do {
+                read = channel.read(buffer);
+                buffer.flip();
+                while (buffer.remaining() >= SLOT_BYTES) {
+                    long stored = buffer.getLong();
+                    long balance = buffer.getLong();
+                    long delta = buffer.getLong();
+                    int slot = slotOf(stored & ~DIRTY, true);
+                    slots.putLong(slot * SLOT_BYTES, stored);
+                    slots.putLong(slot * SLOT_BYTES + 8, balance);
+                    slots.putLong(slot * SLOT_BYTES + 16, delta);
+                }
+                buffer.compact();
+            } while (read >= 0);
+        }
+    }
+
+    // Cents as a scaled long; amounts with fractions of a cent are rejected.
+    public static long toCents(BigDecimal amount) {
+        return amount.setScale(2, RoundingMode.UNNECESSARY).unscaledValue().longValueExact();
+    }
+
+    public static BigDecimal fromCents(long cents) {
+        return BigDecimal.valueOf(cents, 2);
+    }
+
+    // Slot holding the key, or when absent the slot it was inserted into (insert) or -1.
+    private int slotOf(long key, boolean insert) {
+        int slot = (int) mix(key) & mask;
+        while (true) {
+            long stored = slots.getLong(slot * SLOT_BYTES) & ~DIRTY;
+            if (stored == key) {
+                return slot;
+            }
+            if (stored == 0) {
+                if (!insert) {
+                    return -1;
+                }
+                if ((long) (size + 1) * 4 > (long) (mask + 1) * 3) {
+                    grow();
+                    return slotOf(key, true);
+                }
+                slots.putLong(slot * SLOT_BYTES, key);
+                slots.putLong(slot * SLOT_BYTES + 8, 0L);
+                slots.putLong(slot * SLOT_BYTES + 16, 0L);
+                size++;
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    private long balanceAt(int slot) {
+        return slots.getLong(slot * SLOT_BYTES + 8);
+    }
+
+    private long deltaAt(int slot) {
+        return slots.getLong(slot * SLOT_BYTES + 16);
+    }
+
+    private void grow() {
+        int capacity = (mask + 1) * 2;
+        if (capacity > MAX_SLOTS) {
+            throw new IllegalStateException("Account ledger is full at " + size + " accounts");
+        }
+        ByteBuffer old = slots;
+        int oldSlots = mask + 1;
+        allocate(capacity);
+        for (int slot = 0; slot < oldSlots; slot++) {
+            long stored = old.getLong(slot * SLOT_BYTES);
+            if (stored != 0) {
+                int target = slotOf(stored & ~DIRTY, true);
+                slots.putLong(target * SLOT_BYTES, stored);
+                slots.putLong(target * SLOT_BYTES + 8, old.getLong(slot * SLOT_BYTES + 8));
+                slots.putLong(target * SLOT_BYTES + 16, old.getLong(slot * SLOT_BYTES + 16));
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        if (capacity > MAX_SLOTS) {
+            throw new IllegalArgumentException("At most " + MAX_SLOTS / 4 * 3 + " accounts are supported");
+        }
+        slots = ByteBuffer.allocateDirect(capacity * SLOT_BYTES);
+        mask = capacity - 1;
+        size = 0;
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    private static long encode(String accountNumber) {
+        int length = accountNumber.length();
+        if (length == 0 || length > MAX_DIGITS) {
+            throw new IllegalArgumentException("Unsupported account number: " + accountNumber);
+        }
+        long key = 1;
+        for (int i = 0; i < length; i++) {
+            char c = accountNumber.charAt(i);
+            if (c < '0' || c > '9') {
+                throw new IllegalArgumentException("Unsupported account number: " + accountNumber);
+            }
+            key = key * 10 + (c - '0');
+        }
+        return key;
+    }
+
+    private static String decode(long key) {
+        return Long.toString(key).substring(1);
+    }
+
+    // Spreads the bits of sequential account numbers (the finalizer of MurmurHash3).
+    private static long mix(long key) {
+        key ^= key >>> 33;
+        key *= 0xff51afd7ed558ccdL;
+        key ^= key >>> 33;
+        key *= 0xc4ceb9fe1a85ec53L;
+        key ^= key >>> 33;
+        return key;
+    }
+}
@@ -0,0 +1,75 @@
+package com.learn.springbatchexample.banking;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Files behind a restartable AccountLedger: full snapshots, numbered 1, 2, ..., and
+ * after each snapshot S the deltas S.1, S.2, ... holding the balances changed by one
+ * chunk each. Snapshot 0 stands for the balances stored in account_balance. Restoring
+ * (S, D) reads snapshot S, then deltas 1 to D in order, so only these two numbers have
+ * to be kept in the step ExecutionContext.
+ * <p>
+ * The files of one step are named after the job instance and the step, so a restart
+ * finds them again.
+ */
+class AccountLedgerCheckpoint {
+
+    private static final Logger log = LoggerFactory.getLogger(AccountLedgerCheckpoint.class);
+
+    static final String SNAPSHOT_KEY = "accountLedger.snapshot";
+    static final String DELTAS_KEY = "accountLedger.deltas";
+    static final String CHANGES_KEY = "accountLedger.changes";
+
+    private final Path base;
+
+    AccountLedgerCheckpoint(Path dir, long jobInstanceId, String stepName) {
+        this.base = dir.resolve("ledger-" + jobInstanceId + "-" + stepName);
+    }
+
+    // Merges snapshot (when not 0) and its first deltas into the ledger.
+    void restore(AccountLedger ledger, int snapshot, int deltas) throws IOException {
+        if (snapshot > 0) {
+            ledger.readSnapshot(snapshotFile(snapshot));
+        }
+        for (int delta = 1; delta <= deltas; delta++) {
+            ledger.readSnapshot(deltaFile(snapshot, delta));
+        }
+    }
+
+    void writeSnapshot(AccountLedger ledger, int snapshot) throws IOException {
+        Files.createDirectories(base.getParent());
+        ledger.writeSnapshot(snapshotFile(snapshot));
+    }
+
+    void writeDelta(AccountLedger changes, int snapshot, int delta) throws IOException {
+        Files.createDirectories(base.getParent());
+        changes.writeSnapshot(deltaFile(snapshot, delta));
+    }
+
+    // Deletes snapshot (when not 0) and all of its deltas.
+    void delete(int snapshot) {
+        try {
+            if (snapshot > 0) {
+                Files.deleteIfExists(snapshotFile(snapshot));
+            }
+            for (int delta = 1; Files.deleteIfExists(deltaFile(snapshot, delta)); delta++) {
+                // deltas are numbered without gaps
+            }
+        } catch (IOException e) {
+            log.warn("Unable to delete account ledger snapshot {}", snapshot, e);
+        }
+    }
+
+    Path snapshotFile(int snapshot) {
+        return base.resolveSibling(base.getFileName() + "." + snapshot);
+    }
+
+    Path deltaFile(int snapshot, int delta) {
+        return base.resolveSibling(base.getFileName() + "." + snapshot + "." + delta);
+    }
+}
@@ -0,0 +1,153 @@
+package com.learn.springbatchexample.banking;
+
+import org.jetbrains.annotations.NotNull;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.ExitStatus;
+import org.springframework.batch.core.StepContribution;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.StepExecutionListener;
+import org.springframework.batch.core.scope.context.ChunkContext;
+import org.springframework.batch.core.step.tasklet.Tasklet;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.repeat.RepeatStatus;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Writes the changes an AccountLedgerProcessor step made back to account_balance, as
+ * the step after it. The ledger is rebuilt from that step's last checkpoint, whose
+ * snapshot and delta numbers are promoted to the job ExecutionContext when it
+ * completes; the delta of each changed (dirty) account is added to its stored balance,
+ * in the step transaction. Adding rather than overwriting keeps what another job
+ * running the same flow added to the same accounts in the meantime.
+ * <p>
+ * A failed flush rolls back and fails the job, and a restart runs it again from the
+ * same files. A flush that committed is recorded in the step ExecutionContext in the
+ * same transaction, so it is never added twice. The files are deleted once the flush
+ * has completed.
+ */
+public class AccountLedgerFlushTasklet implements Tasklet, StepExecutionListener {
+
+    private static final Logger log = LoggerFactory.getLogger(AccountLedgerFlushTasklet.class);
+
+    private static final int FLUSH_BATCH_SIZE = 1000;
+
+    private static final String FLUSHED_KEY = "accountLedger.flushed";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final String ledgerStepName;
+    private final int expectedAccounts;
+    private final Path snapshotDir;
+
+    public AccountLedgerFlushTasklet(DataSource dataSource, String ledgerStepName, int expectedAccounts,
+                                     Path snapshotDir) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.ledgerStepName = ledgerStepName;
+        this.expectedAccounts = expectedAccounts;
+        this.snapshotDir = snapshotDir;
+    }
+
+    @Override
+    public RepeatStatus execute(@NotNull StepContribution contribution, @NotNull ChunkContext chunkContext)
+            throws IOException {
+        StepExecution stepExecution = chunkContext.getStepContext().getStepExecution();
+        ExecutionContext jobContext = stepExecution.getJobExecution().getExecutionContext();
+        if (!jobContext.containsKey(AccountLedgerCheckpoint.SNAPSHOT_KEY)) {
+            log.info("No account ledger checkpoint of {} to flush", ledgerStepName);
+            return RepeatStatus.FINISHED;
+        }
+        if (stepExecution.getExecutionContext().containsKey(FLUSHED_KEY)) {
+            log.info("Account ledger of {} was flushed before", ledgerStepName);
+            return RepeatStatus.FINISHED;
+        }
+        int snapshot = jobContext.getInt(AccountLedgerCheckpoint.SNAPSHOT_KEY);
+        int deltas = jobContext.getInt(AccountLedgerCheckpoint.DELTAS_KEY, 0);
+
+        // The stored balances are not needed: every changed account is in the files, dirty, with its delta.
+        AccountLedger ledger = new AccountLedger(expectedAccounts);
+        checkpoint(stepExecution).restore(ledger, snapshot, deltas);
+
+        List<Object[]> batch = new ArrayList<>(FLUSH_BATCH_SIZE);
+        long[] flushed = {0};
+        ledger.forEach((account, balance, delta, dirty) -> {
+            if (!dirty || delta == 0) {
+                return;
+            }
+            batch.add(new Object[]{AccountLedger.fromCents(delta), account});
+            if (batch.size() == FLUSH_BATCH_SIZE) {
+                flushed[0] += upsert(batch);
+                batch.clear();
+            }
+        });
+        if (!batch.isEmpty()) {
+            flushed[0] += upsert(batch);
+        }
+        // Committed with the balances by the step's transaction.
+        stepExecution.getExecutionContext().putLong(FLUSHED_KEY, flushed[0]);
+        contribution.incrementWriteCount(flushed[0]);
+        log.info("Account ledger flushed {} of {} accounts to account_balance", flushed[0], ledger.size());
+        return RepeatStatus.FINISHED;
+    }
+
+    @Override
+    public ExitStatus afterStep(@NotNull StepExecution stepExecution) {
+        ExecutionContext jobContext = stepExecution.getJobExecution().getExecutionContext();
+        if (stepExecution.getStatus() == BatchStatus.COMPLETED
+                && jobContext.containsKey(AccountLedgerCheckpoint.SNAPSHOT_KEY)) {
+            int snapshot = jobContext.getInt(AccountLedgerCheckpoint.SNAPSHOT_KEY);
+            AccountLedgerCheckpoint checkpoint = checkpoint(stepExecution);
+            checkpoint.delete(snapshot);
+            checkpoint.delete(snapshot - 1);
+        }
+        return stepExecution.getExitStatus();
+    }
+
+    private AccountLedgerCheckpoint checkpoint(StepExecution stepExecution) {
+        return new AccountLedgerCheckpoint(snapshotDir,
+                stepExecution.getJobExecution().getJobInstance().getInstanceId(), ledgerStepName);
+    }
+
+    // Batched additive UPDATEs. Accounts not stored yet are inserted at 0 and then updated the same way,
+    // so two runs creating the same account both add their delta.
+    private int upsert(List<Object[]> rows) {
+        String update = "UPDATE account_balance SET balance = balance + ? WHERE account_number = ?";
+        int[] updated = jdbcTemplate.batchUpdate(update, rows);
+        List<Object[]> missing = new ArrayList<>();
+        for (int i = 0; i < updated.length; i++) {
+            if (updated[i] == 0) {
+                missing.add(rows.get(i));
+            }
+        }
+        if (!missing.isEmpty()) {
+            insertZeroBalances(missing);
+            jdbcTemplate.batchUpdate(update, missing);
+        }
+        return rows.size();
+    }
+
+    // A zero balance is harmless whichever insert stored it, so a batch cut short by a concurrent run's
+    // insert is retried row by row, leaving the accounts that exist.
+    private void insertZeroBalances(List<Object[]> rows) {
+        String insert = "INSERT INTO account_balance (account_number, balance) VALUES (?, 0)";
+        List<Object[]> accounts = rows.stream().map(row -> new Object[]{row[1]}).toList();
+        try {
+            jdbcTemplate.batchUpdate(insert, accounts);
+        } catch (DuplicateKeyException e) {
+            for (Object[] account : accounts) {
+                try {
+                    jdbcTemplate.update(insert, account);
+                } catch (DuplicateKeyException stored) {
+                    // Inserted by a concurrent run, or by the batch above.
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package com.learn.springbatchexample.banking;
+
+import org.jetbrains.annotations.NotNull;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.StepExecutionListener;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemProcessor;
+import org.springframework.batch.item.ItemStream;
+import org.springframework.batch.item.ItemStreamException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Status processor that keeps per-account running balances in an {@link AccountLedger}.
+ * Each PENDING transaction is applied to its account. If the balance would fall below
+ * minus the overdraft limit, the transaction is marked REJECTED and left out of the
+ * balance; otherwise it is marked PROCESSED.
+ * <p>
+ * Restart state, committed with every chunk (see {@link AccountLedgerCheckpoint}):
+ * <ul>
+ *     <li>a delta file with the balances the chunk changed;</li>
+ *     <li>a snapshot file of the whole ledger, written once snapshotEvery balances have
+ *     changed since the previous one;</li>
+ *     <li>the snapshot and delta numbers, the only ledger state in the step
+ *     ExecutionContext.</li>
+ * </ul>
+ * A fresh step starts from the account_balance table. The changes to it are written back
+ * by {@link AccountLedgerFlushTasklet} in the step after this one, so a failed write fails
+ * the job and is retried on restart.
+ * <p>
+ * Holds the ledger of one step execution; the bean is step scoped.
+ */
+public class AccountLedgerProcessor implements ItemProcessor<BankingTransaction, BankingTransaction>, ItemStream,
+        StepExecutionListener {
+
+    private static final Logger log = LoggerFactory.getLogger(AccountLedgerProcessor.class);
+
+    private static final int EXPECTED_CHUNK_ACCOUNTS = 1024;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final String toStatus;
+    private final long overdraftLimitCents;
+    private final int expectedAccounts;
+    private final int snapshotEvery;
+    private final Path snapshotDir;
+
+    private AccountLedgerCheckpoint checkpoint;
+    private AccountLedger ledger;
+    // Balances changed by the current chunk, written as its delta.
+    private AccountLedger chunkChanges;
+    private int snapshotSequence;
+    private int deltaSequence;
+    private long changesSinceSnapshot;
+
+    public AccountLedgerProcessor(DataSource dataSource, String toStatus, long overdraftLimitCents,
+                                  int expectedAccounts, int snapshotEvery, Path snapshotDir) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.toStatus = toStatus;
+        this.overdraftLimitCents = overdraftLimitCents;
+        this.expectedAccounts = expectedAccounts;
+        this.snapshotEvery = snapshotEvery;
+        this.snapshotDir = snapshotDir;
+    }
+
+    @Override
+    public void beforeStep(@NotNull StepExecution stepExecution) {
+        // Stable across restarts of the same job instance.
+        checkpoint = new AccountLedgerCheckpoint(snapshotDir,
+                stepExecution.getJobExecution().getJobInstance().getInstanceId(), stepExecution.getStepName());
+    }
+
+    @Override
+    public BankingTransaction process(@NotNull BankingTransaction transaction) {
+        long amount = AccountLedger.toCents(transaction.getAmount());
+        String account = transaction.getAccountNumber();
+        long balance = ledger.balance(account) + amount;
+        if (balance < -overdraftLimitCents) {
+            transaction.setStatus("REJECTED");
+            return transaction;
+        }
+        ledger.add(account, amount);
+        chunkChanges.put(account, balance, ledger.delta(account), true);
+        transaction.setStatus(toStatus);
+        return transaction;
+    }
+
+    @Override
+    public void open(@NotNull ExecutionContext executionContext) {
+        ledger = new AccountLedger(expectedAccounts);
+        chunkChanges = new AccountLedger(EXPECTED_CHUNK_ACCOUNTS);
+        snapshotSequence = executionContext.getInt(AccountLedgerCheckpoint.SNAPSHOT_KEY, 0);
+        deltaSequence = executionContext.getInt(AccountLedgerCheckpoint.DELTAS_KEY, 0);
+        changesSinceSnapshot = executionContext.getLong(AccountLedgerCheckpoint.CHANGES_KEY, 0L);
+        try {
+            if (snapshotSequence == 0) {
+                loadBalances();
+            }
+            checkpoint.restore(ledger, snapshotSequence, deltaSequence);
+        } catch (IOException e) {
+            throw new ItemStreamException("Unable to restore the account ledger", e);
+        }
+        log.info("Account ledger opened with {} accounts (snapshot {}, {} deltas)",
+                ledger.size(), snapshotSequence, deltaSequence);
+    }
+
+    // Runs inside the chunk transaction: the checkpoint commits together with the chunk's status updates.
+    // Files written for a chunk that then rolls back are not referenced, and are overwritten later.
+    @Override
+    public void update(@NotNull ExecutionContext executionContext) {
+        try {
+            if (chunkChanges.size() > 0) {
+                checkpoint.writeDelta(chunkChanges, snapshotSequence, deltaSequence + 1);
+                deltaSequence++;
+                changesSinceSnapshot += chunkChanges.size();
+                chunkChanges.clear();
+            }
+            if (changesSinceSnapshot >= snapshotEvery) {
+                checkpoint.writeSnapshot(ledger, snapshotSequence + 1);
+                // The previous snapshot stays until this one is committed; the one before it can go.
+                checkpoint.delete(snapshotSequence - 1);
+                snapshotSequence++;
+                deltaSequence = 0;
+                changesSinceSnapshot = 0;
+            }
+        } catch (IOException e) {
+            throw new ItemStreamException("Unable to write the account ledger checkpoint", e);
+        }
+        executionContext.putInt(AccountLedgerCheckpoint.SNAPSHOT_KEY, snapshotSequence);
+        executionContext.putInt(AccountLedgerCheckpoint.DELTAS_KEY, deltaSequence);
+        executionContext.putLong(AccountLedgerCheckpoint.CHANGES_KEY, changesSinceSnapshot);
+    }
+
+    @Override
+    public void close() {
+        // Drops the references to the direct buffers; their memory is released with them.
+        ledger = null;
+        chunkChanges = null;
+    }
+
+    // Streams the stored balances into the ledger.
+    private void loadBalances() {
+        jdbcTemplate.query("SELECT account_number, balance FROM account_balance", rs -> {
+            ledger.put(rs.getString(1), AccountLedger.toCents(rs.getBigDecimal(2)), false);
+        });
+    }
+}
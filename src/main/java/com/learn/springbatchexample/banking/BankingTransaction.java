@@ -10,7 +10,14 @@ import java.time.LocalDateTime;
  */
 
 @Entity
-@Table(name = "bank_transaction")
+// (status, id) serves the keyset reads of PENDING rows and the sliced status updates;
+// transaction_date the duplicate filter's scan of the dates in an imported file;
+// the natural key makes a re-imported line a duplicate instead of a second row
+@Table(name = "bank_transaction",
+        indexes = {@Index(name = "idx_bank_transaction_status_id", columnList = "status, id"),
+                @Index(name = "idx_bank_transaction_date", columnList = "transaction_date")},
+        uniqueConstraints = @UniqueConstraint(name = "uk_bank_transaction_natural_key",
+                columnNames = {"account_number", "transaction_date", "amount", "source_line"}))
 public class BankingTransaction {
 
     @Id
@@ -20,6 +27,7 @@ public class BankingTransaction {
     private BigDecimal amount;
     private LocalDateTime transactionDate;
     private String status; // e.g., "PENDING", "PROCESSED"
+    private Long sourceLine; // line number in the imported file, header included
 
     // Getters and setters
     public Long getId() {
@@ -52,6 +60,12 @@ public class BankingTransaction {
     public void setStatus(String status) {
         this.status = status;
     }
+    public Long getSourceLine() {
+        return sourceLine;
+    }
+    public void setSourceLine(Long sourceLine) {
+        this.sourceLine = sourceLine;
+    }
 
     @Override
     public String toString() {
@@ -61,6 +75,7 @@ public class BankingTransaction {
                 ", amount=" + amount +
                 ", transactionDate=" + transactionDate +
                 ", status='" + status + '\'' +
+                ", sourceLine=" + sourceLine +
                 '}';
     }
 }
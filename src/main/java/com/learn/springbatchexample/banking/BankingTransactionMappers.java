@@ -0,0 +1,65 @@
+package com.learn.springbatchexample.banking;
+
+import com.learn.springbatchexample.support.FixedFormatParsers;
+import com.learn.springbatchexample.support.MappedCsvItemReader;
+import org.springframework.batch.item.file.LineMapper;
+import org.springframework.batch.item.file.mapping.FieldSetMapper;
+import org.springframework.batch.item.file.transform.DelimitedLineTokenizer;
+
+/**
+ * Line mappers for transactions.csv (accountNumber,amount,transactionDate), one for
+ * each reader type. Every mapped transaction starts out PENDING. The line mappers also
+ * record the source line, numbered as in the whole file even when only a byte range of
+ * it is read (linesBefore being the number of lines before the range).
+ */
+public final class BankingTransactionMappers {
+
+    public static final String[] FIELD_NAMES = {"accountNumber", "amount", "transactionDate"};
+
+    private BankingTransactionMappers() {
+    }
+
+    // Mapper for the FlatFileItemReader.
+    public static FieldSetMapper<BankingTransaction> fieldSetMapper() {
+        return fieldSet -> {
+            BankingTransaction transaction = new BankingTransaction();
+            transaction.setAccountNumber(fieldSet.readString("accountNumber"));
+            transaction.setAmount(FixedFormatParsers.parseDecimal(fieldSet.readString("amount")));
+            // Parse the date (format yyyy-MM-dd) directly, independent of the system time zone
+            transaction.setTransactionDate(
+                    FixedFormatParsers.parseDate(fieldSet.readString("transactionDate")).atStartOfDay());
+            // Set initial status to PENDING
+            transaction.setStatus("PENDING");
+            return transaction;
+        };
+    }
+
+    // Line mapper for the FlatFileItemReader: the field set mapper plus the source line.
+    public static LineMapper<BankingTransaction> lineMapper(long linesBefore) {
+        DelimitedLineTokenizer tokenizer = new DelimitedLineTokenizer();
+        tokenizer.setNames(FIELD_NAMES);
+        FieldSetMapper<BankingTransaction> fieldSetMapper = fieldSetMapper();
+        return (line, lineNumber) -> {
+            BankingTransaction transaction = fieldSetMapper.mapFieldSet(tokenizer.tokenize(line));
+            transaction.setSourceLine(linesBefore + lineNumber);
+            return transaction;
+        };
+    }
+
+    // Mapper for the MappedCsvItemReader.
+    public static MappedCsvItemReader.RecordMapper<BankingTransaction> recordMapper() {
+        return recordMapper(0);
+    }
+
+    public static MappedCsvItemReader.RecordMapper<BankingTransaction> recordMapper(long linesBefore) {
+        return record -> {
+            BankingTransaction transaction = new BankingTransaction();
+            transaction.setAccountNumber(record.string(0));
+            transaction.setAmount(record.decimal(1));
+            transaction.setTransactionDate(record.date(2).atStartOfDay());
+            transaction.setStatus("PENDING");
+            transaction.setSourceLine(linesBefore + record.lineNumber());
+            return transaction;
+        };
+    }
+}
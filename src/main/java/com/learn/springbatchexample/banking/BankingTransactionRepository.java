@@ -10,4 +10,7 @@ import org.springframework.stereotype.Repository;
 public interface BankingTransactionRepository extends JpaRepository<BankingTransaction, Long> {
 
     long countByStatus(String status);
+
+    // Stops at the first matching row of idx_bank_transaction_status_id instead of counting them all.
+    boolean existsByStatus(String status);
 }
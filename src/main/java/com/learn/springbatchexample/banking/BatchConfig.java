@@ -1,25 +1,47 @@
 package com.learn.springbatchexample.banking;
 
+import com.learn.springbatchexample.remote.ChunkChannel;
+import com.learn.springbatchexample.support.AdaptiveChunkSizePolicy;
+import com.learn.springbatchexample.support.MappedCsvItemReader;
+import com.learn.springbatchexample.support.MultiRowInsertItemWriter;
+import com.learn.springbatchexample.support.StepMetricsListener;
+import com.learn.springbatchexample.support.StepThroughputListener;
+import com.learn.springbatchexample.support.TaskExecutors;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
 import jakarta.persistence.EntityManagerFactory;
 import org.springframework.batch.core.*;
 import org.springframework.batch.core.configuration.annotation.*;
+import org.springframework.batch.core.job.builder.FlowBuilder;
+import org.springframework.batch.core.job.flow.Flow;
 import org.springframework.batch.core.job.builder.JobBuilder;
+import org.springframework.batch.core.listener.ExecutionContextPromotionListener;
 import org.springframework.batch.core.repository.JobRepository;
+import org.springframework.batch.core.step.builder.SimpleStepBuilder;
 import org.springframework.batch.core.step.builder.StepBuilder;
 import org.springframework.batch.item.ItemProcessor;
+import org.springframework.batch.item.ItemReader;
+import org.springframework.batch.item.ItemStreamReader;
+import org.springframework.batch.item.ItemWriter;
 import org.springframework.batch.item.database.JpaItemWriter;
-import org.springframework.batch.item.database.JpaPagingItemReader;
 import org.springframework.batch.item.database.builder.JpaItemWriterBuilder;
-import org.springframework.batch.item.database.builder.JpaPagingItemReaderBuilder;
 import org.springframework.batch.item.file.FlatFileItemReader;
 import org.springframework.batch.item.file.builder.FlatFileItemReaderBuilder;
+import org.springframework.batch.item.support.CompositeItemProcessor;
 import org.springframework.batch.repeat.RepeatStatus;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.Resource;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.jdbc.support.MetaDataAccessException;
 import org.springframework.transaction.PlatformTransactionManager;
 
-import java.time.ZoneId;
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.List;
 
 /**
  * @author prabhakar, @Date 23-06-2025
@@ -30,9 +52,104 @@ import java.time.ZoneId;
 public class BatchConfig {
 
     private final EntityManagerFactory entityManagerFactory;
+    private final DataSource dataSource;
+    private final MeterRegistry meterRegistry;
+    private final StepMetricsListener stepMetricsListener;
+    private final AdaptiveChunkSizePolicy chunkSizePolicy;
 
-    public BatchConfig(EntityManagerFactory entityManagerFactory) {
+    // Source file for the import step; point this at the nightly file outside the classpath.
+    @Value("${banking.transactions.file:classpath:transactions.csv}")
+    private Resource transactionsFile;
+
+    // When true, importTransactionStep splits the file into byte ranges imported in parallel.
+    @Value("${banking.import.partitioned:false}")
+    private boolean importPartitioned;
+
+    @Value("${banking.import.grid-size:4}")
+    private int importGridSize;
+
+    @Value("${banking.import.threads:4}")
+    private int importThreads;
+
+    // Virtual threads for the import executors; JDBC concurrency stays bounded by the connection permits.
+    @Value("${batch.threads.virtual:false}")
+    private boolean virtualThreads;
+
+    // Reader used by the import steps: "flatfile" (FlatFileItemReader) or "mapped" (memory-mapped, file resources only).
+    @Value("${banking.import.reader:flatfile}")
+    private String importReader;
+
+    // Writer used by the import steps: "jpa" (JpaItemWriter) or "jdbc" (multi-row INSERT batches).
+    @Value("${banking.import.writer:jpa}")
+    private String importWriter;
+
+    @Value("${banking.import.rows-per-insert:100}")
+    private int importRowsPerInsert;
+
+    // Idempotent import: skip files imported before (fingerprint) and lines already stored (natural key).
+    // Off by default: rows imported before source lines were recorded are not recognized as duplicates.
+    @Value("${banking.import.dedup.enabled:false}")
+    private boolean importDedup;
+
+    @Value("${banking.import.dedup.false-positive-rate:0.01}")
+    private double importDedupFalsePositiveRate;
+
+    // When the status processor is a pure status transition, run it as bulk UPDATEs instead of chunks.
+    @Value("${banking.process.set-based:true}")
+    private boolean processSetBased;
+
+    @Value("${banking.process.slice-size:1000}")
+    private int processSliceSize;
+
+    @Value("${banking.process.page-size:100}")
+    private int processPageSize;
+
+    // When true, processTransactionStep only hands chunks of ids to RemoteProcessWorker instances (chunk_request table).
+    @Value("${banking.process.remote.enabled:false}")
+    private boolean processRemote;
+
+    @Value("${banking.process.remote.chunk-size:500}")
+    private int processRemoteChunkSize;
+
+    @Value("${banking.process.remote.max-in-flight:16}")
+    private int processRemoteMaxInFlight;
+
+    // A request claimed longer ago than this is presumed lost with its worker and handed out again.
+    @Value("${banking.process.remote.lease-seconds:300}")
+    private long processRemoteLeaseSeconds;
+
+    @Value("${banking.process.remote.poll-ms:200}")
+    private long processRemotePollMillis;
+
+    // The manager step fails when no worker has replied for this long while requests are outstanding.
+    @Value("${banking.process.remote.timeout-seconds:600}")
+    private long processRemoteTimeoutSeconds;
+
+    // When true, processTransactionStep applies each transaction to a per-account running balance.
+    @Value("${banking.ledger.enabled:false}")
+    private boolean ledgerEnabled;
+
+    // Largest negative balance allowed, in currency units; transactions going further are REJECTED.
+    @Value("${banking.ledger.overdraft-limit:0}")
+    private BigDecimal ledgerOverdraftLimit;
+
+    @Value("${banking.ledger.expected-accounts:100000}")
+    private int ledgerExpectedAccounts;
+
+    @Value("${banking.ledger.snapshot-every:10000}")
+    private int ledgerSnapshotEvery;
+
+    @Value("${banking.ledger.snapshot-dir:${java.io.tmpdir}}")
+    private String ledgerSnapshotDir;
+
+    public BatchConfig(EntityManagerFactory entityManagerFactory, DataSource dataSource,
+                       MeterRegistry meterRegistry, StepMetricsListener stepMetricsListener,
+                       AdaptiveChunkSizePolicy chunkSizePolicy) {
         this.entityManagerFactory = entityManagerFactory;
+        this.dataSource = dataSource;
+        this.meterRegistry = meterRegistry;
+        this.stepMetricsListener = stepMetricsListener;
+        this.chunkSizePolicy = chunkSizePolicy;
     }
 
     // Reader for CSV file – reads raw transaction data
@@ -41,32 +158,63 @@ public class BatchConfig {
     public FlatFileItemReader<BankingTransaction> bankingTransactionItemReader() {
         return new FlatFileItemReaderBuilder<BankingTransaction>()
                 .name("bankingTransactionItemReader")
-                .resource(new ClassPathResource("transactions.csv"))
+                .resource(transactionsFile)
                 .linesToSkip(1)  // This line tells Spring Batch to skip the header
-                .delimited()
-                .names(new String[]{"accountNumber", "amount", "transactionDate"})
-                .fieldSetMapper(fieldSet -> {
-                    BankingTransaction transaction = new BankingTransaction();
-                    transaction.setAccountNumber(fieldSet.readString("accountNumber"));
-                    transaction.setAmount(fieldSet.readBigDecimal("amount"));
-                    // Convert the date string to LocalDateTime (assumes format yyyy-MM-dd)
-                    transaction.setTransactionDate(
-                            fieldSet.readDate("transactionDate", "yyyy-MM-dd")
-                                    .toInstant()
-                                    .atZone(ZoneId.systemDefault())
-                                    .toLocalDateTime());
-                    // Set initial status to PENDING
-                    transaction.setStatus("PENDING");
-                    return transaction;
-                })
+                .lineMapper(BankingTransactionMappers.lineMapper(0))
+                .build();
+    }
+
+    // Memory-mapped reader for the same file; parses fields straight from the mapped bytes.
+    @Bean
+    public MappedCsvItemReader<BankingTransaction> mappedTransactionItemReader() {
+        return new MappedCsvItemReader<>("mappedTransactionItemReader", transactionsFile, 1, 3,
+                BankingTransactionMappers.recordMapper());
+    }
+
+    private ItemReader<BankingTransaction> importTransactionItemReader() {
+        return "mapped".equals(importReader) ? mappedTransactionItemReader() : bankingTransactionItemReader();
+    }
+
+    // Reader for one partition: reads only the byte range assigned by TransactionFilePartitioner.
+    // The reader saves its position per partition, so a restart resumes each range where it stopped.
+    @Bean
+    @StepScope
+    public ItemStreamReader<BankingTransaction> partitionedTransactionItemReader(
+            @Value("#{stepExecutionContext['startOffset']}") Long startOffset,
+            @Value("#{stepExecutionContext['endOffset']}") Long endOffset,
+            @Value("#{stepExecutionContext['linesBefore']}") Long linesBefore) {
+        if ("mapped".equals(importReader)) {
+            return new MappedCsvItemReader<>("partitionedTransactionItemReader", transactionsFile,
+                    startOffset, endOffset, 0, 3, BankingTransactionMappers.recordMapper(linesBefore));
+        }
+        return new FlatFileItemReaderBuilder<BankingTransaction>()
+                .name("partitionedTransactionItemReader")
+                .resource(new ByteRangeResource(transactionsFile, startOffset, endOffset))
+                .lineMapper(BankingTransactionMappers.lineMapper(linesBefore))
                 .build();
     }
 
+    @Bean
+    public TransactionFilePartitioner transactionFilePartitioner() {
+        return new TransactionFilePartitioner(transactionsFile);
+    }
+
+    // Thread pool running the import partitions.
+    @Bean
+    public TaskExecutor importTaskExecutor() {
+        return TaskExecutors.create("import-", importThreads, virtualThreads);
+    }
+
     // Processor for Step 1: Validates the transaction. For instance, skip if the amount is negative.
     @Bean
     public ItemProcessor<BankingTransaction, BankingTransaction> bankingTransactionItemProcessor() {
+        Counter negativeAmounts = Counter.builder("banking.transactions.filtered")
+                .description("Transactions filtered out by the import processor")
+                .tag("reason", "negative_amount")
+                .register(meterRegistry);
         return transaction -> {
             if (transaction.getAmount().doubleValue() < 0) {
+                negativeAmounts.increment();
                 // Returning null filters out the record so that invalid transactions are skipped.
                 return null;
             }
@@ -74,6 +222,27 @@ public class BatchConfig {
         };
     }
 
+    // Drops lines that are already stored; as a listener of the top-level import step it builds one filter
+    // per job execution, shared by all partitions.
+    @Bean
+    public DuplicateTransactionFilter duplicateTransactionFilter() throws MetaDataAccessException {
+        return new DuplicateTransactionFilter(transactionsFile, dataSource, meterRegistry, importDedup,
+                importDedupFalsePositiveRate);
+    }
+
+    // First decision of the banking flow: skips the import of a file that was imported completely before.
+    @Bean
+    public ImportedFileGuard importedFileGuard() {
+        return new ImportedFileGuard(transactionsFile, dataSource, importDedup);
+    }
+
+    // Validation, then the duplicate check for the items that passed it.
+    private ItemProcessor<BankingTransaction, BankingTransaction> importItemProcessor() throws MetaDataAccessException {
+        CompositeItemProcessor<BankingTransaction, BankingTransaction> processor = new CompositeItemProcessor<>();
+        processor.setDelegates(List.of(bankingTransactionItemProcessor(), duplicateTransactionFilter()));
+        return processor;
+    }
+
     // JPA Writer to persist transactions to the database
     @Bean
     public JpaItemWriter<BankingTransaction> jpaBankTransactionItemWriter() {
@@ -82,6 +251,25 @@ public class BatchConfig {
                 .build();
     }
 
+    // JDBC Writer for the import path: inserts many rows per statement and leaves the id to the database
+    @Bean
+    public MultiRowInsertItemWriter<BankingTransaction> jdbcBankTransactionItemWriter() {
+        return new MultiRowInsertItemWriter<>(dataSource,
+                "bank_transaction",
+                new String[]{"account_number", "amount", "transaction_date", "status", "source_line"},
+                transaction -> new Object[]{
+                        transaction.getAccountNumber(),
+                        transaction.getAmount(),
+                        transaction.getTransactionDate(),
+                        transaction.getStatus(),
+                        transaction.getSourceLine()},
+                importRowsPerInsert);
+    }
+
+    private ItemWriter<BankingTransaction> importTransactionItemWriter() {
+        return "jdbc".equals(importWriter) ? jdbcBankTransactionItemWriter() : jpaBankTransactionItemWriter();
+    }
+
     //
 //    @Bean
 //    public JpaItemWriter<BankingTransaction> jpaBankTransactionItemWriter(EntityManagerFactory entityManagerFactory) {
@@ -90,49 +278,150 @@ public class BatchConfig {
 //                .build();
 //    }
 
-    // Step 1: Import transactions from the CSV into the database using chunk processing
+    // Step 1: Import transactions from the CSV into the database using chunk processing.
+    // In partitioned mode this is a manager step fanning the byte ranges out to importTransactionWorkerStep.
     @Bean
     public Step importTransactionStep(JobRepository jobRepository,
-                                      PlatformTransactionManager transactionManager) {
+                                      PlatformTransactionManager transactionManager) throws Exception {
+        if (importPartitioned) {
+            return new StepBuilder("importTransactionStep", jobRepository)
+                    .partitioner("importTransactionWorkerStep", transactionFilePartitioner())
+                    .step(importTransactionWorkerStep(jobRepository, transactionManager))
+                    .gridSize(importGridSize)
+                    .taskExecutor(importTaskExecutor())
+                    .listener(new StepThroughputListener())
+                    .listener((StepExecutionListener) duplicateTransactionFilter())
+                    .listener((StepExecutionListener) importedFileGuard())
+                    .build();
+        }
         return new StepBuilder("importTransactionStep", jobRepository)
-                .<BankingTransaction, BankingTransaction>chunk(5, transactionManager)
-                .reader(bankingTransactionItemReader())
-                .processor(bankingTransactionItemProcessor())
-                .writer(jpaBankTransactionItemWriter())
+                .<BankingTransaction, BankingTransaction>chunk(chunkSizePolicy, transactionManager)
+                .reader(importTransactionItemReader())
+                .processor(importItemProcessor())
+                .writer(importTransactionItemWriter())
+                .listener(new StepThroughputListener())
+                .listener((StepExecutionListener) duplicateTransactionFilter())
+                .listener((StepExecutionListener) importedFileGuard())
+                .listener((StepExecutionListener) stepMetricsListener)
+                .listener((ChunkListener) stepMetricsListener)
+                .listener((ItemWriteListener<Object>) stepMetricsListener)
+                .listener((StepExecutionListener) chunkSizePolicy)
+                .listener((ChunkListener) chunkSizePolicy)
                 .build();
     }
 
-    // Reader for Step 2: Uses a JPA reader to pick up transactions that are still PENDING
+    // Worker step for one partition of the transactions file; the duplicate filter is the manager step's.
     @Bean
-    public JpaPagingItemReader<BankingTransaction> pendingTransactionReader() {
-        return new JpaPagingItemReaderBuilder<BankingTransaction>()
-                .name("pendingTransactionReader")
-                .entityManagerFactory(entityManagerFactory)
-                .queryString("SELECT t FROM BankingTransaction t WHERE t.status = 'PENDING'")
-                .pageSize(5)
+    public Step importTransactionWorkerStep(JobRepository jobRepository,
+                                            PlatformTransactionManager transactionManager) throws Exception {
+        return new StepBuilder("importTransactionWorkerStep", jobRepository)
+                .<BankingTransaction, BankingTransaction>chunk(chunkSizePolicy, transactionManager)
+                .reader(partitionedTransactionItemReader(null, null, null))
+                .processor(importItemProcessor())
+                .writer(importTransactionItemWriter())
+                .listener((StepExecutionListener) stepMetricsListener)
+                .listener((ChunkListener) stepMetricsListener)
+                .listener((ItemWriteListener<Object>) stepMetricsListener)
+                .listener((StepExecutionListener) chunkSizePolicy)
+                .listener((ChunkListener) chunkSizePolicy)
                 .build();
     }
 
+    // Reader for Step 2: picks up transactions that are still PENDING, paging by id (keyset) rather than offset
+    @Bean
+    public KeysetTransactionItemReader pendingTransactionReader() {
+        return new KeysetTransactionItemReader("pendingTransactionReader", entityManagerFactory,
+                "PENDING", processPageSize);
+    }
+
     // Processor for Step 2: Applies business logic—here, the transaction status is updated.
     @Bean
     public ItemProcessor<BankingTransaction, BankingTransaction> transactionStatusProcessor() {
-        return transaction -> {
-            // Simulate business processing: update the status to PROCESSED.
-            transaction.setStatus("PROCESSED");
-            return transaction;
-        };
+        // Simulate business processing: update the status to PROCESSED.
+        return new StatusTransitionProcessor("PENDING", "PROCESSED");
+    }
+
+    // Processor for Step 2 with running balances: rejects transactions that would overdraw their account.
+    // One ledger per step execution, so concurrent jobs do not share it.
+    @Bean
+    @StepScope
+    public AccountLedgerProcessor accountLedgerProcessor() {
+        return new AccountLedgerProcessor(dataSource, "PROCESSED", AccountLedger.toCents(ledgerOverdraftLimit),
+                ledgerExpectedAccounts, ledgerSnapshotEvery, Paths.get(ledgerSnapshotDir));
+    }
+
+    // Hands the ledger's last checkpoint to accountLedgerFlushStep once processTransactionStep completed.
+    private ExecutionContextPromotionListener ledgerCheckpointPromotionListener() {
+        ExecutionContextPromotionListener listener = new ExecutionContextPromotionListener();
+        listener.setKeys(new String[]{AccountLedgerCheckpoint.SNAPSHOT_KEY, AccountLedgerCheckpoint.DELTAS_KEY});
+        return listener;
+    }
+
+    // Step 2b with running balances: writes the balances changed by processTransactionStep to account_balance.
+    @Bean
+    public Step accountLedgerFlushStep(JobRepository jobRepository,
+                                       PlatformTransactionManager transactionManager) {
+        return new StepBuilder("accountLedgerFlushStep", jobRepository)
+                .tasklet(new AccountLedgerFlushTasklet(dataSource, "processTransactionStep", ledgerExpectedAccounts,
+                        Paths.get(ledgerSnapshotDir)), transactionManager)
+                .listener(new StepThroughputListener())
+                .build();
+    }
+
+    // Manager of the remote processing mode: sends chunks of pending ids and collects the workers' replies.
+    @Bean
+    public RemoteProcessManagerTasklet remoteProcessManagerTasklet(ChunkChannel chunkChannel) {
+        StatusTransitionProcessor transition = (StatusTransitionProcessor) transactionStatusProcessor();
+        return new RemoteProcessManagerTasklet(chunkChannel, dataSource, transition.getFromStatus(),
+                processRemoteChunkSize, processRemoteMaxInFlight, Duration.ofSeconds(processRemoteLeaseSeconds),
+                processRemotePollMillis, Duration.ofSeconds(processRemoteTimeoutSeconds));
     }
 
     // Step 2: Processes pending transactions and updates their status in chunks.
+    // A pure status transition is executed set-based, in committed slices of ids.
     @Bean
     public Step processTransactionStep(JobRepository jobRepository,
-                                       PlatformTransactionManager transactionManager) {
-        return new StepBuilder("processTransactionStep", jobRepository)
-                .<BankingTransaction, BankingTransaction>chunk(5, transactionManager)
+                                       PlatformTransactionManager transactionManager,
+                                       ChunkChannel chunkChannel) {
+        if (processRemote) {
+            if (ledgerEnabled) {
+                throw new IllegalStateException("banking.ledger.enabled keeps the balances in one process " +
+                        "and cannot be combined with banking.process.remote.enabled");
+            }
+            // The manager is registered as a step listener by the step, being the tasklet.
+            return new StepBuilder("processTransactionStep", jobRepository)
+                    .tasklet(remoteProcessManagerTasklet(chunkChannel), transactionManager)
+                    .listener(new StepThroughputListener())
+                    .listener((StepExecutionListener) stepMetricsListener)
+                    .listener((ChunkListener) stepMetricsListener)
+                    .build();
+        }
+        // The ledger is registered as a stream and listener by the builder, being the processor.
+        ItemProcessor<BankingTransaction, BankingTransaction> processor = ledgerEnabled
+                ? accountLedgerProcessor() : transactionStatusProcessor();
+        if (processSetBased && processor instanceof StatusTransitionProcessor transition) {
+            return new StepBuilder("processTransactionStep", jobRepository)
+                    .tasklet(new BulkStatusUpdateTasklet(dataSource,
+                            transition.getFromStatus(), transition.getToStatus(), processSliceSize), transactionManager)
+                    .listener(new StepThroughputListener())
+                    .listener((StepExecutionListener) stepMetricsListener)
+                    .listener((ChunkListener) stepMetricsListener)
+                    .build();
+        }
+        SimpleStepBuilder<BankingTransaction, BankingTransaction> builder = new StepBuilder("processTransactionStep", jobRepository)
+                .<BankingTransaction, BankingTransaction>chunk(chunkSizePolicy, transactionManager)
                 .reader(pendingTransactionReader())
-                .processor(transactionStatusProcessor())
+                .processor(processor)
                 .writer(jpaBankTransactionItemWriter())
-                .build();
+                .listener((StepExecutionListener) stepMetricsListener)
+                .listener((ChunkListener) stepMetricsListener)
+                .listener((ItemWriteListener<Object>) stepMetricsListener)
+                .listener((StepExecutionListener) chunkSizePolicy)
+                .listener((ChunkListener) chunkSizePolicy);
+        if (ledgerEnabled) {
+            builder.listener((StepExecutionListener) ledgerCheckpointPromotionListener());
+        }
+        return builder.build();
     }
 
     @Bean
@@ -155,22 +444,39 @@ public class BatchConfig {
 //                .build();
 //    }
 
+    // Flow: import unless the file was imported before, then let the decider choose between
+    // processing and the no-op step. Shared by bankingTransactionJob and the nightly job.
+    @Bean
+    public Flow bankingTransactionFlow(Step importTransactionStep,
+                                       Step processTransactionStep,
+                                       Step accountLedgerFlushStep,
+                                       Step noTransactionStep,
+                                       TransactionDecider decider) {
+        FlowBuilder<Flow> builder = new FlowBuilder<Flow>("bankingTransactionFlow")
+                .start(importedFileGuard())
+                .on("ALREADY_IMPORTED").to(decider)
+                .from(importedFileGuard())
+                .on("IMPORT").to(importTransactionStep)
+                .next(decider)
+                .on("PROCESS").to(processTransactionStep);
+        if (ledgerEnabled) {
+            // A failed flush fails the job; a restart flushes again without re-processing.
+            builder = builder.next(accountLedgerFlushStep);
+        }
+        return builder
+                .from(decider)
+                .on("NO_PENDING").to(noTransactionStep)
+                .build();
+    }
+
     // Job: Builds the flow using a decider to determine if processing is needed.
     @Bean
     public Job bankingTransactionJob(JobRepository jobRepository,
-                                     PlatformTransactionManager transactionManager,
-                                     Step importTransactionStep,
-                                     Step processTransactionStep,
-                                     Step noTransactionStep,
-                                     TransactionDecider decider,
+                                     Flow bankingTransactionFlow,
                                      JobCompletionNotificationListener listener) {
         return new JobBuilder("bankingTransactionJob", jobRepository)
                 .listener(listener)
-                .start(importTransactionStep)
-                .next(decider)
-                .on("PROCESS").to(processTransactionStep)
-                .from(decider)
-                .on("NO_PENDING").to(noTransactionStep)
+                .start(bankingTransactionFlow)
                 .end()
                 .build();
     }
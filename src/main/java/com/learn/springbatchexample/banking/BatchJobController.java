@@ -1,9 +1,11 @@
 package com.learn.springbatchexample.banking;
 
+import com.learn.springbatchexample.jobs.JobLaunchService;
+import com.learn.springbatchexample.jobs.JobLimitExceededException;
 import org.springframework.batch.core.Job;
+import org.springframework.batch.core.JobExecution;
 import org.springframework.batch.core.JobParameters;
 import org.springframework.batch.core.JobParametersBuilder;
-import org.springframework.batch.core.launch.JobLauncher;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -19,21 +21,22 @@ import org.springframework.web.bind.annotation.RestController;
 @RequestMapping("/api")
 public class BatchJobController {
 
-    private final JobLauncher jobLauncher;
+    private final JobLaunchService jobLaunchService;
     private final Job bankingTransactionJob;
 
-    public BatchJobController(JobLauncher jobLauncher, Job bankingTransactionJob) {
-        this.jobLauncher = jobLauncher;
+    public BatchJobController(JobLaunchService jobLaunchService, Job bankingTransactionJob) {
+        this.jobLaunchService = jobLaunchService;
         this.bankingTransactionJob = bankingTransactionJob;
     }
 
+    // Returns the JobExecution id right away; progress is at /api/jobs/executions/{id}.
     @GetMapping(value = "/import")
-    public void loadDataToDB() throws Exception {
+    public Long loadDataToDB() throws Exception {
         JobParameters jobParameters = new JobParametersBuilder()
                 .addLong("startAt",System.currentTimeMillis())
                 .toJobParameters();
 
-        jobLauncher.run(bankingTransactionJob, jobParameters);
+        return jobLaunchService.launch(bankingTransactionJob, jobParameters).getId();
     }
 
     @PostMapping("/startBatchJob")
@@ -42,9 +45,11 @@ public class BatchJobController {
             JobParameters jobParameters = new JobParametersBuilder()
                     .addLong("startAt", System.currentTimeMillis())
                     .toJobParameters();
-            jobLauncher.run(bankingTransactionJob, jobParameters);
+            JobExecution execution = jobLaunchService.launch(bankingTransactionJob, jobParameters);
             // The listeners will be invoked automatically by Spring Batch.
-            return ResponseEntity.ok("Job started successfully.");
+            return ResponseEntity.ok("Job started successfully. Execution id: " + execution.getId());
+        } catch (JobLimitExceededException e) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).body(e.getMessage());
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body("Error starting job: " + e.getMessage());
@@ -0,0 +1,55 @@
+package com.learn.springbatchexample.banking;
+
+import org.jetbrains.annotations.NotNull;
+import org.springframework.batch.core.StepContribution;
+import org.springframework.batch.core.scope.context.ChunkContext;
+import org.springframework.batch.core.step.tasklet.Tasklet;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.repeat.RepeatStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+
+/**
+ * Set-based replacement for reading, processing and merging transactions one by one:
+ * moves rows from one status to another with keyset-ranged bulk UPDATEs. Each call
+ * handles one slice of ids in its own transaction and stores the last id in the step
+ * ExecutionContext, so a restarted step carries on after the last committed slice.
+ */
+public class BulkStatusUpdateTasklet implements Tasklet {
+
+    private static final String LAST_ID_KEY = "bulkStatusUpdate.lastId";
+
+    private static final String SLICE_END_SQL =
+            "SELECT MAX(id) FROM (SELECT id FROM bank_transaction WHERE status = ? AND id > ? ORDER BY id LIMIT ?) slice";
+    private static final String UPDATE_SQL =
+            "UPDATE bank_transaction SET status = ? WHERE id BETWEEN ? AND ? AND status = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final String fromStatus;
+    private final String toStatus;
+    private final int sliceSize;
+
+    public BulkStatusUpdateTasklet(DataSource dataSource, String fromStatus, String toStatus, int sliceSize) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.fromStatus = fromStatus;
+        this.toStatus = toStatus;
+        this.sliceSize = sliceSize;
+    }
+
+    @Override
+    public RepeatStatus execute(@NotNull StepContribution contribution, @NotNull ChunkContext chunkContext) {
+        ExecutionContext context = chunkContext.getStepContext().getStepExecution().getExecutionContext();
+        long lastId = context.getLong(LAST_ID_KEY, 0L);
+
+        Long sliceEnd = jdbcTemplate.queryForObject(SLICE_END_SQL, Long.class, fromStatus, lastId, sliceSize);
+        if (sliceEnd == null) {
+            return RepeatStatus.FINISHED;
+        }
+
+        int updated = jdbcTemplate.update(UPDATE_SQL, toStatus, lastId + 1, sliceEnd, fromStatus);
+        contribution.incrementWriteCount(updated);
+        context.putLong(LAST_ID_KEY, sliceEnd);
+        return RepeatStatus.CONTINUABLE;
+    }
+}
@@ -0,0 +1,100 @@
+package com.learn.springbatchexample.banking;
+
+import org.jetbrains.annotations.NotNull;
+import org.springframework.core.io.AbstractResource;
+import org.springframework.core.io.Resource;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Exposes the bytes [start, end) of another resource as a resource of its own,
+ * so a plain FlatFileItemReader can read a single partition of a large file.
+ */
+public class ByteRangeResource extends AbstractResource {
+
+    private final Resource delegate;
+    private final long start;
+    private final long end;
+
+    public ByteRangeResource(Resource delegate, long start, long end) {
+        this.delegate = delegate;
+        this.start = start;
+        this.end = end;
+    }
+
+    @Override
+    public boolean exists() {
+        return delegate.exists();
+    }
+
+    @Override
+    public long contentLength() {
+        return end - start;
+    }
+
+    @Override
+    public @NotNull String getDescription() {
+        return "bytes [" + start + ", " + end + ") of " + delegate.getDescription();
+    }
+
+    @Override
+    public @NotNull InputStream getInputStream() throws IOException {
+        InputStream in = delegate.getInputStream();
+        in.skipNBytes(start);
+        return new LimitedInputStream(in, end - start);
+    }
+
+    // Stops reading once the end of the range has been reached.
+    private static class LimitedInputStream extends FilterInputStream {
+
+        private long remaining;
+
+        LimitedInputStream(InputStream in, long remaining) {
+            super(in);
+            this.remaining = remaining;
+        }
+
+        @Override
+        public int read() throws IOException {
+            if (remaining <= 0) {
+                return -1;
+            }
+            int b = super.read();
+            if (b >= 0) {
+                remaining--;
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (remaining <= 0) {
+                return -1;
+            }
+            int n = super.read(b, off, (int) Math.min(len, remaining));
+            if (n > 0) {
+                remaining -= n;
+            }
+            return n;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long skipped = super.skip(Math.min(n, remaining));
+            remaining -= skipped;
+            return skipped;
+        }
+
+        @Override
+        public int available() throws IOException {
+            return (int) Math.min(super.available(), remaining);
+        }
+
+        @Override
+        public boolean markSupported() {
+            return false;
+        }
+    }
+}
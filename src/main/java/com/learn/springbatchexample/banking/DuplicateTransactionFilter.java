@@ -0,0 +1,175 @@
+package com.learn.springbatchexample.banking;
+
+import com.learn.springbatchexample.support.BloomFilter;
+import com.learn.springbatchexample.support.FixedFormatParsers;
+import com.learn.springbatchexample.support.StreamingJdbcTemplate;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.jetbrains.annotations.NotNull;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.batch.core.ExitStatus;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.StepExecutionListener;
+import org.springframework.batch.core.scope.context.StepContext;
+import org.springframework.batch.core.scope.context.StepSynchronizationManager;
+import org.springframework.batch.item.ItemProcessor;
+import org.springframework.batch.item.ItemStreamException;
+import org.springframework.core.io.Resource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.MetaDataAccessException;
+
+import javax.sql.DataSource;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Filters out imported transactions that are already stored, by their natural key
+ * (account number, transaction date, amount, source line). Before the import step a
+ * Bloom filter is built over the stored keys that could collide with the file: those
+ * dated within the file's first and last transaction date. A key it has not seen is new
+ * for sure, and only the keys it may have seen are looked up through the unique index.
+ * A re-imported line is filtered, so it counts as a filtered item rather than a write.
+ * <p>
+ * One filter per job execution: it is built as a listener of the top-level import step
+ * (the manager step, when the import is partitioned) and the processors of all its
+ * partitions find it by the job execution of the step they run in. Concurrent jobs
+ * importing at the same time each have their own.
+ * <p>
+ * Rows stored before source lines were recorded have a null source_line and are never
+ * matched, so a file imported by an earlier version is imported again in full; dedup is
+ * therefore off by default (banking.import.dedup.enabled).
+ */
+public class DuplicateTransactionFilter implements ItemProcessor<BankingTransaction, BankingTransaction>,
+        StepExecutionListener {
+
+    private static final Logger log = LoggerFactory.getLogger(DuplicateTransactionFilter.class);
+
+    private final Resource transactionsFile;
+    private final JdbcTemplate jdbcTemplate;
+    private final JdbcTemplate streamingJdbcTemplate;
+    private final boolean enabled;
+    private final double falsePositiveRate;
+    private final Counter duplicates;
+    private final Counter falsePositives;
+
+    // Filters by job execution id, from the import step's beforeStep to its afterStep.
+    private final Map<Long, BloomFilter> storedKeys = new ConcurrentHashMap<>();
+
+    public DuplicateTransactionFilter(Resource transactionsFile, DataSource dataSource, MeterRegistry meterRegistry,
+                                      boolean enabled, double falsePositiveRate) throws MetaDataAccessException {
+        this.transactionsFile = transactionsFile;
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.streamingJdbcTemplate = new StreamingJdbcTemplate(dataSource);
+        this.enabled = enabled;
+        this.falsePositiveRate = falsePositiveRate;
+        this.duplicates = Counter.builder("banking.transactions.filtered")
+                .description("Transactions filtered out by the import processor")
+                .tag("reason", "duplicate")
+                .register(meterRegistry);
+        this.falsePositives = Counter.builder("banking.import.dedup.false-positives")
+                .description("Keys the Bloom filter reported that were not stored")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void beforeStep(@NotNull StepExecution stepExecution) {
+        if (!enabled) {
+            return;
+        }
+        long start = System.nanoTime();
+        LocalDate[] dates = dateRange();
+        BloomFilter filter;
+        long stored = 0;
+        if (dates == null) {
+            filter = new BloomFilter(0, falsePositiveRate);
+        } else {
+            // transaction_date is stored at the start of the day.
+            Object[] range = {dates[0].atStartOfDay(), dates[1].plusDays(1).atStartOfDay()};
+            Long count = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM bank_transaction " +
+                    "WHERE transaction_date >= ? AND transaction_date < ? AND source_line IS NOT NULL", Long.class, range);
+            stored = count == null ? 0 : count;
+            BloomFilter keys = new BloomFilter(stored, falsePositiveRate);
+            streamingJdbcTemplate.query("SELECT account_number, transaction_date, amount, source_line " +
+                    "FROM bank_transaction WHERE transaction_date >= ? AND transaction_date < ? " +
+                    "AND source_line IS NOT NULL", rs -> {
+                keys.put(key(rs.getString(1), rs.getTimestamp(2).toLocalDateTime(), rs.getBigDecimal(3), rs.getLong(4)));
+            }, range);
+            filter = keys;
+        }
+        storedKeys.put(stepExecution.getJobExecutionId(), filter);
+        log.info("Duplicate filter built over {} stored transactions dated {} in {} ms ({} bits, {} hashes)",
+                stored, dates == null ? "-" : dates[0] + ".." + dates[1], (System.nanoTime() - start) / 1_000_000,
+                filter.bitCount(), filter.hashCount());
+    }
+
+    @Override
+    public BankingTransaction process(@NotNull BankingTransaction transaction) {
+        StepContext context = StepSynchronizationManager.getContext();
+        BloomFilter filter = context == null ? null : storedKeys.get(context.getStepExecution().getJobExecutionId());
+        if (filter == null || transaction.getSourceLine() == null) {
+            return transaction;
+        }
+        if (!filter.mightContain(key(transaction.getAccountNumber(), transaction.getTransactionDate(),
+                transaction.getAmount(), transaction.getSourceLine()))) {
+            return transaction;
+        }
+        Integer count = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM bank_transaction " +
+                        "WHERE account_number = ? AND transaction_date = ? AND amount = ? AND source_line = ?",
+                Integer.class, transaction.getAccountNumber(), transaction.getTransactionDate(),
+                transaction.getAmount(), transaction.getSourceLine());
+        if (count != null && count > 0) {
+            duplicates.increment();
+            return null;
+        }
+        falsePositives.increment();
+        return transaction;
+    }
+
+    @Override
+    public ExitStatus afterStep(@NotNull StepExecution stepExecution) {
+        storedKeys.remove(stepExecution.getJobExecutionId());
+        return stepExecution.getExitStatus();
+    }
+
+    // First and last transaction date in the file (header skipped), or null when it has no transactions.
+    private LocalDate[] dateRange() {
+        LocalDate first = null;
+        LocalDate last = null;
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(transactionsFile.getInputStream(), StandardCharsets.UTF_8), 1024 * 1024)) {
+            reader.readLine();
+            String line;
+            while ((line = reader.readLine()) != null) {
+                int comma = line.lastIndexOf(',');
+                if (comma < 0) {
+                    continue;
+                }
+                LocalDate date = FixedFormatParsers.parseDate(line.substring(comma + 1).trim());
+                if (first == null || date.isBefore(first)) {
+                    first = date;
+                }
+                if (last == null || date.isAfter(last)) {
+                    last = date;
+                }
+            }
+        } catch (IOException e) {
+            throw new ItemStreamException("Unable to read " + transactionsFile.getDescription(), e);
+        }
+        return first == null ? null : new LocalDate[]{first, last};
+    }
+
+    // Amounts are compared at the column's scale of 2, as the database compares them.
+    private static String key(String accountNumber, LocalDateTime transactionDate, BigDecimal amount, long sourceLine) {
+        return accountNumber + '|' + transactionDate + '|' + amount.setScale(2, RoundingMode.HALF_UP).toPlainString()
+                + '|' + sourceLine;
+    }
+}
@@ -0,0 +1,52 @@
+package com.learn.springbatchexample.banking;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+
+import java.time.LocalDateTime;
+
+/**
+ * A transactions file that has been imported completely, identified by the SHA-256 of
+ * its content.
+ */
+
+@Entity
+@Table(name = "imported_file")
+public class ImportedFile {
+
+    @Id
+    @Column(length = 64)
+    private String fingerprint;
+
+    private String description;
+    private Long contentLength;
+    private LocalDateTime importedAt;
+
+    // Getters and setters
+    public String getFingerprint() {
+        return fingerprint;
+    }
+    public void setFingerprint(String fingerprint) {
+        this.fingerprint = fingerprint;
+    }
+    public String getDescription() {
+        return description;
+    }
+    public void setDescription(String description) {
+        this.description = description;
+    }
+    public Long getContentLength() {
+        return contentLength;
+    }
+    public void setContentLength(Long contentLength) {
+        this.contentLength = contentLength;
+    }
+    public LocalDateTime getImportedAt() {
+        return importedAt;
+    }
+    public void setImportedAt(LocalDateTime importedAt) {
+        this.importedAt = importedAt;
+    }
+}
@@ -0,0 +1,108 @@
+package com.learn.springbatchexample.banking;
+
+import org.jetbrains.annotations.NotNull;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.ExitStatus;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.StepExecutionListener;
+import org.springframework.batch.core.job.flow.FlowExecutionStatus;
+import org.springframework.batch.core.job.flow.JobExecutionDecider;
+import org.springframework.batch.item.ItemStreamException;
+import org.springframework.core.io.Resource;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+
+/**
+ * Skips the import of a transactions file that was imported completely before. As the
+ * first decision of the banking flow it fingerprints the file (SHA-256 of the content)
+ * and answers ALREADY_IMPORTED for a known fingerprint, IMPORT otherwise. As a listener
+ * of the import step it records the fingerprint once the step has completed.
+ * <p>
+ * A file whose import failed half-way is not recorded, so it is imported again; the
+ * lines that did get in are then filtered by DuplicateTransactionFilter.
+ */
+public class ImportedFileGuard implements JobExecutionDecider, StepExecutionListener {
+
+    private static final Logger log = LoggerFactory.getLogger(ImportedFileGuard.class);
+
+    public static final String FINGERPRINT_KEY = "import.fingerprint";
+
+    private final Resource transactionsFile;
+    private final JdbcTemplate jdbcTemplate;
+    private final boolean enabled;
+
+    public ImportedFileGuard(Resource transactionsFile, DataSource dataSource, boolean enabled) {
+        this.transactionsFile = transactionsFile;
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.enabled = enabled;
+    }
+
+    @Override
+    public @NotNull FlowExecutionStatus decide(@NotNull JobExecution jobExecution, StepExecution stepExecution) {
+        if (!enabled) {
+            return new FlowExecutionStatus("IMPORT");
+        }
+        String fingerprint = fingerprint(jobExecution);
+        Integer known = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM imported_file WHERE fingerprint = ?",
+                Integer.class, fingerprint);
+        if (known != null && known > 0) {
+            log.info("{} was imported before (sha256 {}), skipping the import", transactionsFile.getDescription(),
+                    fingerprint);
+            return new FlowExecutionStatus("ALREADY_IMPORTED");
+        }
+        return new FlowExecutionStatus("IMPORT");
+    }
+
+    @Override
+    public ExitStatus afterStep(@NotNull StepExecution stepExecution) {
+        if (enabled && stepExecution.getStatus() == BatchStatus.COMPLETED) {
+            try {
+                jdbcTemplate.update("INSERT INTO imported_file (fingerprint, description, content_length, imported_at) " +
+                                "VALUES (?, ?, ?, ?)", fingerprint(stepExecution.getJobExecution()),
+                        transactionsFile.getDescription(), transactionsFile.contentLength(), LocalDateTime.now());
+            } catch (DuplicateKeyException e) {
+                // Imported by a concurrent run.
+            } catch (IOException e) {
+                throw new ItemStreamException("Unable to read " + transactionsFile.getDescription(), e);
+            }
+        }
+        return stepExecution.getExitStatus();
+    }
+
+    // Computed once per job execution and kept in its context, so the step records what the decision saw.
+    private String fingerprint(JobExecution jobExecution) {
+        String fingerprint = jobExecution.getExecutionContext().getString(FINGERPRINT_KEY, null);
+        if (fingerprint == null) {
+            fingerprint = sha256();
+            jobExecution.getExecutionContext().putString(FINGERPRINT_KEY, fingerprint);
+        }
+        return fingerprint;
+    }
+
+    private String sha256() {
+        try (InputStream in = transactionsFile.getInputStream()) {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] buffer = new byte[1024 * 1024];
+            int read;
+            while ((read = in.read(buffer)) >= 0) {
+                digest.update(buffer, 0, read);
+            }
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (IOException e) {
+            throw new ItemStreamException("Unable to read " + transactionsFile.getDescription(), e);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -5,14 +5,36 @@ import jakarta.persistence.PersistenceContext;
 import org.jetbrains.annotations.NotNull;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.ExitStatus;
 import org.springframework.batch.core.JobExecution;
 import org.springframework.batch.core.JobExecutionListener;
-import org.springframework.batch.core.listener.JobExecutionListenerSupport;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.repository.JobRepository;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Component;
 
+import javax.sql.DataSource;
+import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.HashMap;
 
 /**
+ * Verifies a completed bankingTransactionJob. In the default "aggregate" mode the
+ * reconciliation figures of this execution are computed in the database and kept in
+ * the job ExecutionContext:
+ * <ul>
+ *     <li>{@code verification.imported}: rows above the id high-watermark taken before the job.</li>
+ *     <li>{@code verification.countByStatus} / {@code verification.amountByStatus}: those rows per status.</li>
+ *     <li>{@code verification.pendingResidue}: those rows still PENDING.</li>
+ * </ul>
+ * The job is failed when the import step's counts do not add up (read = written +
+ * filtered + skipped) or when the rows found differ from the rows it wrote. This
+ * assumes no other writer inserts into bank_transaction while the job runs.
+ * "rows" logs every transaction instead (small data sets only), "off" skips verification.
+ *
  * @author prabhakar, @Date 23-06-2025
  */
 
@@ -21,15 +43,31 @@ public class JobCompletionNotificationListener implements JobExecutionListener {
 
     private static final Logger log = LoggerFactory.getLogger(JobCompletionNotificationListener.class);
 
+    private static final String IMPORT_STEP_NAME = "importTransactionStep";
+    private static final String START_ID_KEY = "verification.startId";
+
     @PersistenceContext
     private EntityManager entityManager;
 
+    private final JdbcTemplate jdbcTemplate;
+    private final JobRepository jobRepository;
+
+    @Value("${banking.verification.mode:aggregate}")
+    private String verificationMode;
+
+    public JobCompletionNotificationListener(DataSource dataSource, JobRepository jobRepository) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jobRepository = jobRepository;
+    }
 
     @Override
     public void beforeJob(@NotNull JobExecution jobExecution) {
         LocalDateTime startTime = LocalDateTime.now();
         log.info("Job is starting. JobExecution ID: {} at {}", jobExecution.getId(), startTime);
         jobExecution.getExecutionContext().putLong("jobStartTime", System.currentTimeMillis());
+        if ("aggregate".equals(verificationMode)) {
+            jobExecution.getExecutionContext().putLong(START_ID_KEY, maxTransactionId());
+        }
     }
 
     @Override
@@ -38,14 +76,69 @@ public class JobCompletionNotificationListener implements JobExecutionListener {
             log.info("Job did not complete successfully: {}", jobExecution.getStatus());
             return;
         }
-        // above one and below one both working on equalized logic
-        if (!jobExecution.getStatus().isRunning() && !jobExecution.getStatus().isUnsuccessful()) {
-            log.info("Job completed successfully! Verifying the results...");
-            entityManager.createQuery("SELECT t FROM BankingTransaction t", BankingTransaction.class)
-                    .getResultList()
-                    .forEach(t -> log.info("Found transaction: {}", t));
-        } else {
-            log.info("Job failed with status: {}", jobExecution.getStatus());
+        switch (verificationMode) {
+            case "aggregate" -> verifyAggregates(jobExecution);
+            case "rows" -> {
+                log.info("Job completed successfully! Verifying the results...");
+                entityManager.createQuery("SELECT t FROM BankingTransaction t", BankingTransaction.class)
+                        .getResultList()
+                        .forEach(t -> log.info("Found transaction: {}", t));
+            }
+            default -> log.info("Job completed successfully, verification is off");
         }
     }
-}
\ No newline at end of file
+
+    private void verifyAggregates(JobExecution jobExecution) {
+        ExecutionContext context = jobExecution.getExecutionContext();
+        long startId = context.getLong(START_ID_KEY, 0L);
+
+        HashMap<String, Long> countByStatus = new HashMap<>();
+        HashMap<String, BigDecimal> amountByStatus = new HashMap<>();
+        jdbcTemplate.query("SELECT status, COUNT(*), COALESCE(SUM(amount), 0) FROM bank_transaction " +
+                        "WHERE id > ? GROUP BY status",
+                rs -> {
+                    countByStatus.put(rs.getString(1), rs.getLong(2));
+                    amountByStatus.put(rs.getString(1), rs.getBigDecimal(3));
+                },
+                startId);
+        long imported = countByStatus.values().stream().mapToLong(Long::longValue).sum();
+        long pendingResidue = countByStatus.getOrDefault("PENDING", 0L);
+
+        context.putLong("verification.imported", imported);
+        context.put("verification.countByStatus", countByStatus);
+        context.put("verification.amountByStatus", amountByStatus);
+        context.putLong("verification.pendingResidue", pendingResidue);
+        log.info("Job completed: {} transactions imported, per status {} totalling {}, {} still PENDING",
+                imported, countByStatus, amountByStatus, pendingResidue);
+
+        StepExecution importStep = jobExecution.getStepExecutions().stream()
+                .filter(step -> IMPORT_STEP_NAME.equals(step.getStepName()))
+                .findFirst()
+                .orElse(null);
+        if (importStep != null) {
+            long read = importStep.getReadCount();
+            long written = importStep.getWriteCount();
+            long accounted = written + importStep.getFilterCount()
+                    + importStep.getProcessSkipCount() + importStep.getWriteSkipCount();
+            if (read != accounted || written != imported) {
+                fail(jobExecution, String.format(
+                        "Reconciliation failed: read=%d written=%d filtered=%d skipped=%d, rows found=%d",
+                        read, written, importStep.getFilterCount(),
+                        importStep.getProcessSkipCount() + importStep.getWriteSkipCount(), imported));
+            }
+        }
+        // The context is not saved again after the listeners ran, so persist the figures here.
+        jobRepository.updateExecutionContext(jobExecution);
+    }
+
+    private void fail(JobExecution jobExecution, String description) {
+        log.error(description);
+        jobExecution.setStatus(BatchStatus.FAILED);
+        jobExecution.setExitStatus(ExitStatus.FAILED.addExitDescription(description));
+    }
+
+    private long maxTransactionId() {
+        Long maxId = jdbcTemplate.queryForObject("SELECT MAX(id) FROM bank_transaction", Long.class);
+        return maxId == null ? 0L : maxId;
+    }
+}
@@ -0,0 +1,96 @@
+package com.learn.springbatchexample.banking;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.jetbrains.annotations.NotNull;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemStreamReader;
+
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Reads transactions of one status in id order, one page at a time, with
+ * {@code id > lastSeenId ORDER BY id} instead of an offset. Rows whose status changes
+ * while the step runs can no longer shift later pages, and every page is a short range
+ * scan of the (status, id) index no matter how deep into the table it is.
+ * The last id handed out is saved in the ExecutionContext so a restart resumes after it.
+ */
+public class KeysetTransactionItemReader implements ItemStreamReader<BankingTransaction> {
+
+    private static final String QUERY =
+            "SELECT t FROM BankingTransaction t WHERE t.status = :status AND t.id > :lastId ORDER BY t.id";
+
+    private final EntityManagerFactory entityManagerFactory;
+    private final String status;
+    private final int pageSize;
+    private final String lastIdKey;
+
+    private EntityManager entityManager;
+    private Iterator<BankingTransaction> page;
+    private boolean lastPage;
+    private long lastSeenId;
+    private long pageEndId;
+
+    public KeysetTransactionItemReader(String name, EntityManagerFactory entityManagerFactory,
+                                       String status, int pageSize) {
+        this.entityManagerFactory = entityManagerFactory;
+        this.status = status;
+        this.pageSize = pageSize;
+        this.lastIdKey = name + ".lastId";
+    }
+
+    @Override
+    public void open(@NotNull ExecutionContext executionContext) {
+        entityManager = entityManagerFactory.createEntityManager();
+        lastSeenId = executionContext.getLong(lastIdKey, 0L);
+        pageEndId = lastSeenId;
+        page = null;
+        lastPage = false;
+    }
+
+    @Override
+    public BankingTransaction read() {
+        if (page == null || !page.hasNext()) {
+            if (lastPage) {
+                return null;
+            }
+            readPage();
+            if (!page.hasNext()) {
+                return null;
+            }
+        }
+        BankingTransaction transaction = page.next();
+        lastSeenId = transaction.getId();
+        return transaction;
+    }
+
+    private void readPage() {
+        // Items are handed out detached; the writer merges them back.
+        entityManager.clear();
+        List<BankingTransaction> results = entityManager.createQuery(QUERY, BankingTransaction.class)
+                .setParameter("status", status)
+                .setParameter("lastId", pageEndId)
+                .setMaxResults(pageSize)
+                .getResultList();
+        entityManager.clear();
+        lastPage = results.size() < pageSize;
+        if (!results.isEmpty()) {
+            pageEndId = results.get(results.size() - 1).getId();
+        }
+        page = results.iterator();
+    }
+
+    @Override
+    public void update(@NotNull ExecutionContext executionContext) {
+        executionContext.putLong(lastIdKey, lastSeenId);
+    }
+
+    @Override
+    public void close() {
+        if (entityManager != null) {
+            entityManager.close();
+            entityManager = null;
+        }
+    }
+}
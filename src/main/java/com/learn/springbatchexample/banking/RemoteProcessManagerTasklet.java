@@ -0,0 +1,144 @@
+package com.learn.springbatchexample.banking;
+
+import com.learn.springbatchexample.remote.ChunkChannel;
+import com.learn.springbatchexample.remote.ChunkRequest;
+import org.jetbrains.annotations.NotNull;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.batch.core.StepContribution;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.StepExecutionListener;
+import org.springframework.batch.core.scope.context.ChunkContext;
+import org.springframework.batch.core.step.tasklet.Tasklet;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.repeat.RepeatStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Manager side of remote-chunking style processing: instead of processing transactions
+ * itself, the step sends keyset-ranged chunk descriptors (first id, last id) of the
+ * transactions still in the from-status through a ChunkChannel, and RemoteProcessWorker
+ * instances apply the processor and writer to them.
+ * <p>
+ * Each call is one round in the step transaction: replies are collected and their
+ * read, write and filter counts added to the StepExecution, then new descriptors are
+ * sent up to max-in-flight outstanding requests. Collecting, sending and the last sent
+ * id in the ExecutionContext commit together, so a restarted step neither counts a
+ * reply twice nor skips a range. Requests claimed longer than the lease ago are handed
+ * to another worker; a request that failed on every attempt fails the step, and so does
+ * a step without any reply for the timeout while requests are outstanding (no worker
+ * running, or none able to reach the database).
+ */
+public class RemoteProcessManagerTasklet implements Tasklet, StepExecutionListener {
+
+    private static final Logger log = LoggerFactory.getLogger(RemoteProcessManagerTasklet.class);
+
+    private static final String LAST_SENT_ID_KEY = "remoteProcess.lastSentId";
+
+    private static final String CHUNK_SQL = "SELECT MIN(id), MAX(id), COUNT(*) FROM " +
+            "(SELECT id FROM bank_transaction WHERE status = ? AND id > ? ORDER BY id LIMIT ?) chunk";
+
+    private final ChunkChannel chunkChannel;
+    private final JdbcTemplate jdbcTemplate;
+    private final String fromStatus;
+    private final int chunkSize;
+    private final int maxInFlight;
+    private final Duration lease;
+    private final long pollMillis;
+    private final Duration timeout;
+
+    // When this step execution last saw a reply, or started.
+    private Instant lastReplyAt;
+
+    public RemoteProcessManagerTasklet(ChunkChannel chunkChannel, DataSource dataSource, String fromStatus,
+                                       int chunkSize, int maxInFlight, Duration lease, long pollMillis,
+                                       Duration timeout) {
+        this.chunkChannel = chunkChannel;
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.fromStatus = fromStatus;
+        this.chunkSize = chunkSize;
+        this.maxInFlight = maxInFlight;
+        this.lease = lease;
+        this.pollMillis = pollMillis;
+        this.timeout = timeout;
+    }
+
+    // A restart gives the requests that failed last time a fresh set of attempts.
+    @Override
+    public void beforeStep(@NotNull StepExecution stepExecution) {
+        lastReplyAt = Instant.now();
+        int retried = chunkChannel.retryFailed(stepKey(stepExecution));
+        if (retried > 0) {
+            log.info("Retrying {} chunk requests that failed in the previous execution", retried);
+        }
+    }
+
+    @Override
+    public RepeatStatus execute(@NotNull StepContribution contribution, @NotNull ChunkContext chunkContext)
+            throws InterruptedException {
+        StepExecution stepExecution = chunkContext.getStepContext().getStepExecution();
+        ExecutionContext context = stepExecution.getExecutionContext();
+        String stepKey = stepKey(stepExecution);
+
+        int requeued = chunkChannel.requeueExpired(stepKey, lease);
+        if (requeued > 0) {
+            log.warn("Re-queued {} chunk requests whose lease of {} expired", requeued, lease);
+        }
+
+        List<ChunkRequest> replies = chunkChannel.replies(stepKey);
+        for (ChunkRequest reply : replies) {
+            if (ChunkRequest.FAILED.equals(reply.getStatus())) {
+                throw new IllegalStateException("Chunk " + reply.getFirstId() + ".." + reply.getLastId() +
+                        " failed after " + reply.getAttempts() + " attempts: " + reply.getError());
+            }
+            for (long i = 0; i < reply.getReadCount(); i++) {
+                contribution.incrementReadCount();
+            }
+            contribution.incrementWriteCount(reply.getWriteCount());
+            contribution.incrementFilterCount(reply.getFilterCount());
+        }
+        if (!replies.isEmpty()) {
+            chunkChannel.collected(replies);
+            lastReplyAt = Instant.now();
+        }
+
+        int outstanding = chunkChannel.outstanding(stepKey);
+        long lastSentId = context.getLong(LAST_SENT_ID_KEY, 0L);
+        int sent = 0;
+        while (outstanding + sent < maxInFlight) {
+            // MIN, MAX and COUNT of the next chunkSize ids; COUNT is 0 once nothing is left to send.
+            long[] chunk = jdbcTemplate.queryForObject(CHUNK_SQL,
+                    (rs, rowNum) -> new long[]{rs.getLong(1), rs.getLong(2), rs.getLong(3)},
+                    fromStatus, lastSentId, chunkSize);
+            if (chunk == null || chunk[2] == 0) {
+                break;
+            }
+            chunkChannel.send(stepKey, chunk[0], chunk[1], (int) chunk[2]);
+            lastSentId = chunk[1];
+            sent++;
+        }
+        context.putLong(LAST_SENT_ID_KEY, lastSentId);
+
+        if (outstanding + sent == 0) {
+            return RepeatStatus.FINISHED;
+        }
+        if (replies.isEmpty() && Duration.between(lastReplyAt, Instant.now()).compareTo(timeout) > 0) {
+            throw new IllegalStateException("No chunk reply for " + timeout + " with " + (outstanding + sent) +
+                    " requests outstanding; is a RemoteProcessWorker running (banking.process.remote.worker.enabled)?");
+        }
+        if (replies.isEmpty() && sent == 0) {
+            // Nothing changed this round; wait for the workers before polling again.
+            Thread.sleep(pollMillis);
+        }
+        return RepeatStatus.CONTINUABLE;
+    }
+
+    private static String stepKey(StepExecution stepExecution) {
+        return stepExecution.getJobExecution().getJobInstance().getInstanceId() + ":" + stepExecution.getStepName();
+    }
+}
@@ -0,0 +1,185 @@
+package com.learn.springbatchexample.banking;
+
+import com.learn.springbatchexample.remote.ChunkChannel;
+import com.learn.springbatchexample.remote.ChunkRequest;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.PersistenceContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.batch.item.Chunk;
+import org.springframework.batch.item.ItemProcessor;
+import org.springframework.batch.item.database.JpaItemWriter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Worker side of remote-chunking style processing: threads that claim chunk requests
+ * from the ChunkChannel, apply transactionStatusProcessor and jpaBankTransactionItemWriter
+ * to the transactions of the chunk still in the from-status, and reply with their counts.
+ * <p>
+ * The transactions are locked while they are read, and the items plus the reply commit
+ * in one transaction, so a chunk handed out twice (after an expired lease) is written
+ * once. A chunk that throws is released for another attempt, up to max-attempts.
+ * <p>
+ * Runs in any instance with banking.process.remote.worker.enabled; the manager's own
+ * instance may be one of them.
+ */
+@Component
+@ConditionalOnProperty(name = "banking.process.remote.worker.enabled", havingValue = "true")
+public class RemoteProcessWorker implements SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(RemoteProcessWorker.class);
+
+    private static final String CHUNK_QUERY = "SELECT t FROM BankingTransaction t " +
+            "WHERE t.id BETWEEN :firstId AND :lastId AND t.status = :status ORDER BY t.id";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final ChunkChannel chunkChannel;
+    private final ItemProcessor<BankingTransaction, BankingTransaction> transactionStatusProcessor;
+    private final JpaItemWriter<BankingTransaction> jpaBankTransactionItemWriter;
+    private final TransactionTemplate transactionTemplate;
+    private final String fromStatus;
+    private final int threads;
+    private final boolean virtualThreads;
+    private final long pollMillis;
+    private final int maxAttempts;
+    private final Counter completed;
+    private final Counter failed;
+
+    private final List<Thread> workers = new ArrayList<>();
+    private volatile boolean running;
+
+    public RemoteProcessWorker(ChunkChannel chunkChannel,
+                               ItemProcessor<BankingTransaction, BankingTransaction> transactionStatusProcessor,
+                               JpaItemWriter<BankingTransaction> jpaBankTransactionItemWriter,
+                               PlatformTransactionManager transactionManager,
+                               MeterRegistry meterRegistry,
+                               @Value("${banking.process.remote.worker.threads:2}") int threads,
+                               @Value("${batch.threads.virtual:false}") boolean virtualThreads,
+                               @Value("${banking.process.remote.poll-ms:200}") long pollMillis,
+                               @Value("${banking.process.remote.max-attempts:3}") int maxAttempts) {
+        this.chunkChannel = chunkChannel;
+        this.transactionStatusProcessor = transactionStatusProcessor;
+        this.jpaBankTransactionItemWriter = jpaBankTransactionItemWriter;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.fromStatus = transactionStatusProcessor instanceof StatusTransitionProcessor transition
+                ? transition.getFromStatus() : "PENDING";
+        this.threads = threads;
+        this.virtualThreads = virtualThreads;
+        this.pollMillis = pollMillis;
+        this.maxAttempts = maxAttempts;
+        this.completed = Counter.builder("banking.process.remote.chunks")
+                .description("Chunk requests handled by this instance's workers")
+                .tag("outcome", "completed")
+                .register(meterRegistry);
+        this.failed = Counter.builder("banking.process.remote.chunks")
+                .description("Chunk requests handled by this instance's workers")
+                .tag("outcome", "failed")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        for (int i = 0; i < threads; i++) {
+            Thread.Builder builder = virtualThreads ? Thread.ofVirtual() : Thread.ofPlatform().daemon(true);
+            workers.add(builder.name("remote-process-worker-" + i).start(this::work));
+        }
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        for (Thread worker : workers) {
+            worker.interrupt();
+        }
+        workers.clear();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void work() {
+        String worker = ProcessHandle.current().pid() + "/" + Thread.currentThread().getName();
+        while (running) {
+            try {
+                ChunkRequest request = chunkChannel.claim(worker);
+                if (request == null) {
+                    Thread.sleep(pollMillis);
+                } else {
+                    process(request);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                log.error("Claiming a chunk request failed, retrying", e);
+            }
+        }
+    }
+
+    private void process(ChunkRequest request) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                List<BankingTransaction> items = entityManager.createQuery(CHUNK_QUERY, BankingTransaction.class)
+                        .setParameter("firstId", request.getFirstId())
+                        .setParameter("lastId", request.getLastId())
+                        .setParameter("status", fromStatus)
+                        .setLockMode(LockModeType.PESSIMISTIC_WRITE)
+                        .getResultList();
+                Chunk<BankingTransaction> processed = new Chunk<>();
+                for (BankingTransaction item : items) {
+                    BankingTransaction result = processItem(item);
+                    if (result != null) {
+                        processed.add(result);
+                    }
+                }
+                writeItems(processed);
+                chunkChannel.complete(request, items.size(), processed.size(), items.size() - processed.size());
+            });
+            completed.increment();
+        } catch (RuntimeException e) {
+            log.warn("Chunk {}..{} failed on attempt {}", request.getFirstId(), request.getLastId(),
+                    request.getAttempts(), e);
+            chunkChannel.fail(request, e.toString(), maxAttempts);
+            failed.increment();
+        }
+    }
+
+    private BankingTransaction processItem(BankingTransaction item) {
+        try {
+            return transactionStatusProcessor.process(item);
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IllegalStateException("Processing transaction " + item.getId() + " failed", e);
+        }
+    }
+
+    private void writeItems(Chunk<BankingTransaction> items) {
+        if (items.isEmpty()) {
+            return;
+        }
+        try {
+            jpaBankTransactionItemWriter.write(items);
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IllegalStateException("Writing " + items.size() + " transactions failed", e);
+        }
+    }
+}
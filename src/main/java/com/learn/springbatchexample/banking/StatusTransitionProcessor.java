@@ -0,0 +1,33 @@
+package com.learn.springbatchexample.banking;
+
+import org.jetbrains.annotations.NotNull;
+import org.springframework.batch.item.ItemProcessor;
+
+/**
+ * Processor that only moves a transaction from one status to another. Because it
+ * touches nothing else, BatchConfig can replace it with a set-based UPDATE.
+ */
+public class StatusTransitionProcessor implements ItemProcessor<BankingTransaction, BankingTransaction> {
+
+    private final String fromStatus;
+    private final String toStatus;
+
+    public StatusTransitionProcessor(String fromStatus, String toStatus) {
+        this.fromStatus = fromStatus;
+        this.toStatus = toStatus;
+    }
+
+    @Override
+    public BankingTransaction process(@NotNull BankingTransaction transaction) {
+        transaction.setStatus(toStatus);
+        return transaction;
+    }
+
+    public String getFromStatus() {
+        return fromStatus;
+    }
+
+    public String getToStatus() {
+        return toStatus;
+    }
+}
@@ -1,5 +1,7 @@
 package com.learn.springbatchexample.banking;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.jetbrains.annotations.NotNull;
 import org.springframework.batch.core.JobExecution;
 import org.springframework.batch.core.StepExecution;
@@ -7,26 +9,61 @@ import org.springframework.batch.core.job.flow.FlowExecutionStatus;
 import org.springframework.batch.core.job.flow.JobExecutionDecider;
 import org.springframework.stereotype.Component;
 
+import java.util.concurrent.TimeUnit;
+
 /**
+ * Decides whether there are PENDING transactions to process. Every imported row is
+ * PENDING, so when importTransactionStep wrote anything in this execution its write
+ * count answers the question without touching the table. Otherwise an EXISTS probe
+ * on the (status, id) index looks for PENDING rows left over from earlier runs.
+ * Each decision is timed in {@code banking.decider.decision}, tagged with the path
+ * taken and the outcome.
+ *
  * @author prabhakar, @Date 23-06-2025
  */
 @Component
 public class TransactionDecider implements JobExecutionDecider {
 
+    private static final String IMPORT_STEP_NAME = "importTransactionStep";
+
     private final BankingTransactionRepository repository;
+    private final MeterRegistry meterRegistry;
 
-    public TransactionDecider(BankingTransactionRepository repository) {
+    public TransactionDecider(BankingTransactionRepository repository, MeterRegistry meterRegistry) {
         this.repository = repository;
+        this.meterRegistry = meterRegistry;
     }
 
     @Override
     public @NotNull FlowExecutionStatus decide(@NotNull JobExecution jobExecution, StepExecution stepExecution) {
-        long pendingCount = repository.countByStatus("PENDING");
-        if (pendingCount > 0) {
-            return new FlowExecutionStatus("PROCESS");
+        long start = System.nanoTime();
+        String path;
+        boolean pending;
+        StepExecution importStep = importStepExecution(jobExecution, stepExecution);
+        if (importStep != null && importStep.getWriteCount() > 0) {
+            path = "step_write_count";
+            pending = true;
         } else {
-            return new FlowExecutionStatus("NO_PENDING");
+            path = "exists_probe";
+            pending = repository.existsByStatus("PENDING");
         }
+        FlowExecutionStatus status = new FlowExecutionStatus(pending ? "PROCESS" : "NO_PENDING");
+        Timer.builder("banking.decider.decision")
+                .description("Time taken to choose between processing and the no-op step")
+                .tag("path", path)
+                .tag("outcome", status.getName())
+                .register(meterRegistry)
+                .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        return status;
     }
 
+    private static StepExecution importStepExecution(JobExecution jobExecution, StepExecution stepExecution) {
+        if (stepExecution != null && IMPORT_STEP_NAME.equals(stepExecution.getStepName())) {
+            return stepExecution;
+        }
+        return jobExecution.getStepExecutions().stream()
+                .filter(step -> IMPORT_STEP_NAME.equals(step.getStepName()))
+                .findFirst()
+                .orElse(null);
+    }
 }
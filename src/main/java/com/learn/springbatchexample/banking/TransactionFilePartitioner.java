@@ -0,0 +1,107 @@
+package com.learn.springbatchexample.banking;
+
+import org.jetbrains.annotations.NotNull;
+import org.springframework.batch.core.partition.support.Partitioner;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemStreamException;
+import org.springframework.core.io.Resource;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Splits the transactions CSV into byte ranges of roughly equal size. Every range
+ * boundary is moved forward to the next line break, so each partition holds whole
+ * lines only, and the header line is left out of the first partition. Each partition
+ * also gets the number of lines before its range, so readers can number lines as in
+ * the whole file.
+ */
+public class TransactionFilePartitioner implements Partitioner {
+
+    public static final String START_OFFSET = "startOffset";
+    public static final String END_OFFSET = "endOffset";
+    public static final String LINES_BEFORE = "linesBefore";
+
+    private final Resource resource;
+
+    public TransactionFilePartitioner(Resource resource) {
+        this.resource = resource;
+    }
+
+    @Override
+    public @NotNull Map<String, ExecutionContext> partition(int gridSize) {
+        try {
+            long length = resource.contentLength();
+            long headerEnd = nextLineStart(0, length);
+            long rangeSize = Math.max(1, (length - headerEnd) / Math.max(1, gridSize));
+
+            Map<String, ExecutionContext> partitions = new HashMap<>();
+            List<ExecutionContext> ordered = new ArrayList<>();
+            long start = headerEnd;
+            int index = 0;
+            while (start < length) {
+                long end = index == gridSize - 1 ? length : Math.min(length, nextLineStart(start + rangeSize, length));
+                ExecutionContext context = new ExecutionContext();
+                context.putLong(START_OFFSET, start);
+                context.putLong(END_OFFSET, end);
+                partitions.put("partition" + index, context);
+                ordered.add(context);
+                start = end;
+                index++;
+            }
+            countLinesBefore(ordered);
+            return partitions;
+        } catch (IOException e) {
+            throw new ItemStreamException("Unable to partition " + resource.getDescription(), e);
+        }
+    }
+
+    // One pass over the file, counting the line breaks before each partition's start offset.
+    private void countLinesBefore(List<ExecutionContext> partitions) throws IOException {
+        long offset = 0;
+        long lines = 0;
+        byte[] buffer = new byte[64 * 1024];
+        try (InputStream in = resource.getInputStream()) {
+            for (ExecutionContext partition : partitions) {
+                long start = partition.getLong(START_OFFSET);
+                while (offset < start) {
+                    int read = in.read(buffer, 0, (int) Math.min(buffer.length, start - offset));
+                    if (read < 0) {
+                        break;
+                    }
+                    for (int i = 0; i < read; i++) {
+                        if (buffer[i] == '\n') {
+                            lines++;
+                        }
+                    }
+                    offset += read;
+                }
+                partition.putLong(LINES_BEFORE, lines);
+            }
+        }
+    }
+
+    // Returns the offset just after the first '\n' at or after the given position, or the file length.
+    private long nextLineStart(long position, long length) throws IOException {
+        if (position >= length) {
+            return length;
+        }
+        try (InputStream in = new BufferedInputStream(resource.getInputStream())) {
+            in.skipNBytes(position);
+            long offset = position;
+            int b;
+            while ((b = in.read()) >= 0) {
+                offset++;
+                if (b == '\n') {
+                    return offset;
+                }
+            }
+            return offset;
+        }
+    }
+}
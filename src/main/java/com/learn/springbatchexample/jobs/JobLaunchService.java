@@ -0,0 +1,118 @@
+package com.learn.springbatchexample.jobs;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.ExitStatus;
+import org.springframework.batch.core.Job;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobParameters;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.explore.JobExplorer;
+import org.springframework.batch.core.launch.support.TaskExecutorJobLauncher;
+import org.springframework.batch.core.repository.JobRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Launches jobs asynchronously, so a web request only waits for the JobExecution to be
+ * created and gets its id back immediately. The job itself runs on a dedicated
+ * executor (virtual threads with batch.threads.virtual) instead of a Tomcat request thread, and each
+ * job name may have at most {@code batch.launcher.max-running-per-job} running executions.
+ * <p>
+ * An execution left STARTED by a JVM that died never finishes on its own. One created
+ * before this service started and without a heartbeat (the last update of the execution
+ * or of one of its steps) for {@code batch.launcher.stale-after-seconds} is marked
+ * FAILED instead of counted, which also makes its job instance restartable.
+ */
+@Service
+public class JobLaunchService {
+
+    private static final Logger log = LoggerFactory.getLogger(JobLaunchService.class);
+
+    private final TaskExecutorJobLauncher asyncJobLauncher;
+    private final JobRepository jobRepository;
+    private final JobExplorer jobExplorer;
+    private final int maxRunningPerJob;
+    private final long staleAfterSeconds;
+    private final LocalDateTime startedAt = LocalDateTime.now();
+    private final Map<String, ReentrantLock> launchLocks = new ConcurrentHashMap<>();
+
+    public JobLaunchService(JobRepository jobRepository,
+                            JobExplorer jobExplorer,
+                            @Value("${batch.launcher.virtual-threads:${batch.threads.virtual:false}}") boolean virtualThreads,
+                            @Value("${batch.launcher.max-running-per-job:1}") int maxRunningPerJob,
+                            @Value("${batch.launcher.stale-after-seconds:600}") long staleAfterSeconds) throws Exception {
+        SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("job-");
+        executor.setVirtualThreads(virtualThreads);
+        this.asyncJobLauncher = new TaskExecutorJobLauncher();
+        this.asyncJobLauncher.setJobRepository(jobRepository);
+        this.asyncJobLauncher.setTaskExecutor(executor);
+        this.asyncJobLauncher.afterPropertiesSet();
+        this.jobRepository = jobRepository;
+        this.jobExplorer = jobExplorer;
+        this.maxRunningPerJob = maxRunningPerJob;
+        this.staleAfterSeconds = staleAfterSeconds;
+    }
+
+    public JobExecution launch(Job job, JobParameters jobParameters) throws Exception {
+        // Checking and launching under one lock per job name keeps concurrent triggers from both passing the check.
+        // A ReentrantLock rather than synchronized: the JDBC calls inside would pin a virtual thread.
+        ReentrantLock lock = launchLocks.computeIfAbsent(job.getName(), name -> new ReentrantLock());
+        lock.lock();
+        try {
+            int running = 0;
+            for (JobExecution execution : jobExplorer.findRunningJobExecutions(job.getName())) {
+                if (isStale(execution)) {
+                    fail(execution);
+                } else {
+                    running++;
+                }
+            }
+            if (running >= maxRunningPerJob) {
+                throw new JobLimitExceededException(job.getName(), maxRunningPerJob);
+            }
+            return asyncJobLauncher.run(job, jobParameters);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Left by an earlier JVM (this one's executions are all created after startedAt) and silent since.
+    private boolean isStale(JobExecution execution) {
+        if (execution.getCreateTime() == null || !execution.getCreateTime().isBefore(startedAt)) {
+            return false;
+        }
+        LocalDateTime heartbeat = execution.getLastUpdated() != null ? execution.getLastUpdated()
+                : execution.getCreateTime();
+        for (StepExecution stepExecution : execution.getStepExecutions()) {
+            if (stepExecution.getLastUpdated() != null && stepExecution.getLastUpdated().isAfter(heartbeat)) {
+                heartbeat = stepExecution.getLastUpdated();
+            }
+        }
+        return heartbeat.isBefore(LocalDateTime.now().minusSeconds(staleAfterSeconds));
+    }
+
+    private void fail(JobExecution execution) {
+        LocalDateTime now = LocalDateTime.now();
+        for (StepExecution stepExecution : execution.getStepExecutions()) {
+            if (stepExecution.getStatus().isRunning()) {
+                stepExecution.setStatus(BatchStatus.FAILED);
+                stepExecution.setExitStatus(ExitStatus.FAILED.addExitDescription("Abandoned by a previous JVM"));
+                stepExecution.setEndTime(now);
+                jobRepository.update(stepExecution);
+            }
+        }
+        execution.setStatus(BatchStatus.FAILED);
+        execution.setExitStatus(ExitStatus.FAILED.addExitDescription("Abandoned by a previous JVM"));
+        execution.setEndTime(now);
+        jobRepository.update(execution);
+        log.warn("Marked stale execution {} of {} as FAILED", execution.getId(), execution.getJobInstance().getJobName());
+    }
+}
@@ -0,0 +1,15 @@
+package com.learn.springbatchexample.jobs;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Thrown when a job already has the maximum number of executions running.
+ */
+@ResponseStatus(HttpStatus.TOO_MANY_REQUESTS)
+public class JobLimitExceededException extends RuntimeException {
+
+    public JobLimitExceededException(String jobName, int limit) {
+        super("Job " + jobName + " already has " + limit + " running execution(s)");
+    }
+}
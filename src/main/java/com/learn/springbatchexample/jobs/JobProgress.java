@@ -0,0 +1,52 @@
+package com.learn.springbatchexample.jobs;
+
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.StepExecution;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Progress of a job execution as last committed to the JobRepository: status plus,
+ * per step, the read/write/skip counts and the write rate so far.
+ */
+public record JobProgress(Long executionId,
+                          String jobName,
+                          String status,
+                          String exitCode,
+                          LocalDateTime startTime,
+                          LocalDateTime endTime,
+                          List<StepProgress> steps) {
+
+    public record StepProgress(String stepName,
+                               String status,
+                               long readCount,
+                               long writeCount,
+                               long filterCount,
+                               long skipCount,
+                               long commitCount,
+                               long rollbackCount,
+                               double itemsPerSecond) {
+
+        static StepProgress of(StepExecution step) {
+            LocalDateTime end = step.getEndTime() != null ? step.getEndTime() : LocalDateTime.now();
+            long millis = step.getStartTime() == null ? 0 : Duration.between(step.getStartTime(), end).toMillis();
+            double itemsPerSecond = millis == 0 ? 0 : step.getWriteCount() * 1000.0 / millis;
+            return new StepProgress(step.getStepName(), step.getStatus().name(),
+                    step.getReadCount(), step.getWriteCount(), step.getFilterCount(), step.getSkipCount(),
+                    step.getCommitCount(), step.getRollbackCount(), itemsPerSecond);
+        }
+    }
+
+    public static JobProgress of(JobExecution execution) {
+        List<StepProgress> steps = execution.getStepExecutions().stream()
+                .sorted(Comparator.comparing(StepExecution::getId))
+                .map(StepProgress::of)
+                .toList();
+        return new JobProgress(execution.getId(), execution.getJobInstance().getJobName(),
+                execution.getStatus().name(), execution.getExitStatus().getExitCode(),
+                execution.getStartTime(), execution.getEndTime(), steps);
+    }
+}
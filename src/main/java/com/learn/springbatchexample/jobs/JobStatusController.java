@@ -0,0 +1,41 @@
+package com.learn.springbatchexample.jobs;
+
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.explore.JobExplorer;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+/**
+ * Live progress of launched jobs, read from the JobExplorer.
+ */
+@RestController
+@RequestMapping("/api/jobs")
+public class JobStatusController {
+
+    private final JobExplorer jobExplorer;
+
+    public JobStatusController(JobExplorer jobExplorer) {
+        this.jobExplorer = jobExplorer;
+    }
+
+    @GetMapping("/executions/{executionId}")
+    public ResponseEntity<JobProgress> getExecution(@PathVariable Long executionId) {
+        JobExecution execution = jobExplorer.getJobExecution(executionId);
+        if (execution == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(JobProgress.of(execution));
+    }
+
+    @GetMapping("/{jobName}/running")
+    public List<JobProgress> getRunningExecutions(@PathVariable String jobName) {
+        return jobExplorer.findRunningJobExecutions(jobName).stream()
+                .map(JobProgress::of)
+                .toList();
+    }
+}
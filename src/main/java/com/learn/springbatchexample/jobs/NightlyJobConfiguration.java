@@ -0,0 +1,47 @@
+package com.learn.springbatchexample.jobs;
+
+import com.learn.springbatchexample.banking.JobCompletionNotificationListener;
+import com.learn.springbatchexample.support.TaskExecutors;
+import org.springframework.batch.core.Job;
+import org.springframework.batch.core.job.builder.FlowBuilder;
+import org.springframework.batch.core.job.builder.JobBuilder;
+import org.springframework.batch.core.job.flow.Flow;
+import org.springframework.batch.core.job.flow.support.SimpleFlow;
+import org.springframework.batch.core.repository.JobRepository;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskExecutor;
+
+/**
+ * nightlyJob runs the banking and the log flows side by side through a split, so the
+ * night's wall-clock time is about that of the longer flow rather than their sum.
+ */
+@Configuration
+public class NightlyJobConfiguration {
+
+    @Value("${batch.threads.virtual:false}")
+    private boolean virtualThreads;
+
+    // One thread per flow of the split.
+    @Bean
+    public TaskExecutor nightlyFlowExecutor() {
+        return TaskExecutors.create("nightly-", 2, virtualThreads);
+    }
+
+    @Bean
+    public Job nightlyJob(JobRepository jobRepository,
+                          Flow bankingTransactionFlow,
+                          Flow logAggregationFlow,
+                          JobCompletionNotificationListener listener) {
+        Flow parallelFlows = new FlowBuilder<SimpleFlow>("nightlyFlows")
+                .split(nightlyFlowExecutor())
+                .add(bankingTransactionFlow, logAggregationFlow)
+                .build();
+        return new JobBuilder("nightlyJob", jobRepository)
+                .listener(listener)
+                .start(parallelFlows)
+                .end()
+                .build();
+    }
+}
@@ -0,0 +1,44 @@
+package com.learn.springbatchexample.jobs;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.batch.core.Job;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobParametersBuilder;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+
+/**
+ * Launches nightlyJob on the nightly.cron schedule through the shared JobLaunchService.
+ * The run date is the identifying parameter, so a night runs once and a failed night
+ * can be restarted.
+ */
+@Component
+@ConditionalOnProperty(name = "nightly.enabled", havingValue = "true")
+public class NightlyJobScheduler {
+
+    private static final Logger log = LoggerFactory.getLogger(NightlyJobScheduler.class);
+
+    private final JobLaunchService jobLaunchService;
+    private final Job nightlyJob;
+
+    public NightlyJobScheduler(JobLaunchService jobLaunchService, Job nightlyJob) {
+        this.jobLaunchService = jobLaunchService;
+        this.nightlyJob = nightlyJob;
+    }
+
+    @Scheduled(cron = "${nightly.cron:0 0 2 * * *}")
+    public void launchNightlyJob() {
+        try {
+            JobExecution execution = jobLaunchService.launch(nightlyJob, new JobParametersBuilder()
+                    .addLocalDate("runDate", LocalDate.now())
+                    .toJobParameters());
+            log.info("Nightly job launched, execution id {}", execution.getId());
+        } catch (Exception e) {
+            log.error("Unable to launch the nightly job", e);
+        }
+    }
+}
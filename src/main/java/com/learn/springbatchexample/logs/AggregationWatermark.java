@@ -0,0 +1,42 @@
+package com.learn.springbatchexample.logs;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+
+/**
+ * Remembers how far an incremental aggregation has got, as the highest source row id
+ * already counted.
+ */
+
+@Entity
+@Table(name = "aggregation_watermark")
+public class AggregationWatermark {
+
+    @Id
+    private String name;
+
+    private Long lastId;
+
+    // Getters and setters
+    public String getName() {
+        return name;
+    }
+    public void setName(String name) {
+        this.name = name;
+    }
+    public Long getLastId() {
+        return lastId;
+    }
+    public void setLastId(Long lastId) {
+        this.lastId = lastId;
+    }
+
+    @Override
+    public String toString() {
+        return "AggregationWatermark{" +
+                "name='" + name + '\'' +
+                ", lastId=" + lastId +
+                '}';
+    }
+}
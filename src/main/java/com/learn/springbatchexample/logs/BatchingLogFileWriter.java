@@ -0,0 +1,162 @@
+package com.learn.springbatchexample.logs;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Appends lines to a file from any number of producer threads without blocking them:
+ * producers put lines on a lock-free queue, and one writer thread copies them into a
+ * buffer that is written to a FileChannel kept open between writes. The buffer is
+ * written when it is full or when the queue runs empty.
+ * <p>
+ * When the queue holds {@code capacity} lines, further lines are dropped and counted
+ * rather than slowing the producers down. If the file is rotated away, the channel
+ * is reopened on the fresh file.
+ */
+public class BatchingLogFileWriter {
+
+    private static final Logger log = LoggerFactory.getLogger(BatchingLogFileWriter.class);
+
+    private final Path path;
+    private final int capacity;
+    private final ByteBuffer buffer;
+
+    private final ConcurrentLinkedQueue<String> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger queued = new AtomicInteger();
+    private final LongAdder written = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+
+    private volatile boolean running;
+    private Thread thread;
+    private FileChannel channel;
+    private Object fileKey;
+
+    public BatchingLogFileWriter(Path path, int capacity, int bufferBytes) {
+        this.path = path;
+        this.capacity = capacity;
+        this.buffer = ByteBuffer.allocateDirect(bufferBytes);
+    }
+
+    public void start() {
+        running = true;
+        thread = new Thread(this::drain, "log-file-writer");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    // Stops accepting work once the queue has been written out.
+    public void stop() throws InterruptedException {
+        running = false;
+        if (thread != null) {
+            thread.join();
+        }
+    }
+
+    public boolean offer(String line) {
+        if (queued.incrementAndGet() > capacity) {
+            queued.decrementAndGet();
+            dropped.increment();
+            return false;
+        }
+        queue.offer(line);
+        return true;
+    }
+
+    public long getWritten() {
+        return written.sum();
+    }
+
+    public long getDropped() {
+        return dropped.sum();
+    }
+
+    private void drain() {
+        try {
+            while (running || !queue.isEmpty()) {
+                String line = queue.poll();
+                if (line == null) {
+                    flush();
+                    LockSupport.parkNanos(1_000_000);
+                    continue;
+                }
+                queued.decrementAndGet();
+                byte[] bytes = line.getBytes(StandardCharsets.UTF_8);
+                if (bytes.length > buffer.remaining()) {
+                    flush();
+                }
+                if (bytes.length > buffer.capacity()) {
+                    write(ByteBuffer.wrap(bytes));
+                } else {
+                    buffer.put(bytes);
+                }
+                written.increment();
+            }
+            flush();
+        } catch (IOException e) {
+            log.error("Writing {} failed", path, e);
+        } finally {
+            close();
+        }
+    }
+
+    private void flush() throws IOException {
+        if (buffer.position() == 0) {
+            return;
+        }
+        buffer.flip();
+        write(buffer);
+        buffer.clear();
+    }
+
+    private void write(ByteBuffer bytes) throws IOException {
+        ensureOpen();
+        while (bytes.hasRemaining()) {
+            channel.write(bytes);
+        }
+    }
+
+    // (Re)opens the channel when there is none yet or the file was rotated away.
+    private void ensureOpen() throws IOException {
+        Object current = currentFileKey();
+        if (channel != null && current != null && Objects.equals(current, fileKey)) {
+            return;
+        }
+        close();
+        channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        fileKey = currentFileKey();
+    }
+
+    private Object currentFileKey() throws IOException {
+        try {
+            return Files.readAttributes(path, BasicFileAttributes.class).fileKey();
+        } catch (NoSuchFileException e) {
+            return null;
+        }
+    }
+
+    private void close() {
+        if (channel != null) {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                log.warn("Unable to close {}", path, e);
+            }
+            channel = null;
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.learn.springbatchexample.logs;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+
+/**
+ * Byte offset up to which a followed file has been ingested, stored in the same
+ * transaction as the rows read from it, with the key (device and inode) of the file
+ * the offset belongs to.
+ */
+
+@Entity
+@Table(name = "ingestion_offset")
+public class IngestionOffset {
+
+    @Id
+    private String name;
+
+    private Long position;
+
+    private String fileKey;
+
+    // Getters and setters
+    public String getName() {
+        return name;
+    }
+    public void setName(String name) {
+        this.name = name;
+    }
+    public Long getPosition() {
+        return position;
+    }
+    public void setPosition(Long position) {
+        this.position = position;
+    }
+    public String getFileKey() {
+        return fileKey;
+    }
+    public void setFileKey(String fileKey) {
+        this.fileKey = fileKey;
+    }
+
+    @Override
+    public String toString() {
+        return "IngestionOffset{" +
+                "name='" + name + '\'' +
+                ", position=" + position +
+                ", fileKey='" + fileKey + '\'' +
+                '}';
+    }
+}
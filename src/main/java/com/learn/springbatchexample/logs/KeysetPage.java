@@ -0,0 +1,10 @@
+package com.learn.springbatchexample.logs;
+
+import java.util.List;
+
+/**
+ * One page of a keyset-paginated listing. Pass {@code nextAfterId} as {@code afterId}
+ * to get the next page; it is null on the last page.
+ */
+public record KeysetPage<T>(List<T> items, Long nextAfterId) {
+}
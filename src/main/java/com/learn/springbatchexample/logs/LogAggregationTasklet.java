@@ -1,7 +1,5 @@
 package com.learn.springbatchexample.logs;
 
-import jakarta.persistence.EntityManager;
-import jakarta.persistence.PersistenceContext;
 import org.jetbrains.annotations.NotNull;
 import org.springframework.batch.core.StepContribution;
 import org.springframework.batch.core.scope.context.ChunkContext;
@@ -10,42 +8,35 @@ import org.springframework.batch.repeat.RepeatStatus;
 import org.springframework.stereotype.Component;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.time.LocalDate;
-
 /**
+ * Incremental aggregation: only log entries above the stored high-watermark id are
+ * grouped, and their counts are added to the matching (level, logDate) summary rows.
+ * Counts and watermark are written in the same transaction, so a rerun never counts
+ * an entry twice. Entries are grouped by their level code, which is decoded once per group.
+ *
  * @author prabhakar, @Date 23-06-2025
  */
 @Component
 public class LogAggregationTasklet implements Tasklet {
 
-    @PersistenceContext
-    private EntityManager entityManager;
+    private final LogSummaryWriter logSummaryWriter;
+
+    public LogAggregationTasklet(LogSummaryWriter logSummaryWriter) {
+        this.logSummaryWriter = logSummaryWriter;
+    }
 
     @Override
     @Transactional
     public RepeatStatus execute(@NotNull StepContribution contribution, @NotNull ChunkContext chunkContext) throws Exception {
-        // Native SQL groups log entries by level and by date.
-        String sql = "SELECT level, CAST(timestamp AS DATE) as log_date, COUNT(*) as cnt " +
-                "FROM log_entry GROUP BY level, CAST(timestamp AS DATE)";
-
-        @SuppressWarnings("unchecked")
-        java.util.List<Object[]> results = entityManager.createNativeQuery(sql).getResultList();
-
-        results.forEach(row -> {
-            String level = (String) row[0];
-            // row[1] is a java.sql.Date which we convert to LocalDate.
-            LocalDate logDate = ((java.sql.Date) row[1]).toLocalDate();
-            Number count = (Number) row[2];
-
-            LogSummary summary = new LogSummary();
-            summary.setLevel(level);
-            summary.setLogDate(logDate);
-            summary.setCount(count.intValue());
-
-            // Persist the aggregated summary record.
-            entityManager.persist(summary);
-        });
-
+        AggregationWatermark watermark = logSummaryWriter.lockWatermark();
+        long lastId = watermark.getLastId();
+        long maxId = logSummaryWriter.maxLogEntryId();
+        if (maxId <= lastId) {
+            return RepeatStatus.FINISHED;
+        }
+
+        contribution.incrementWriteCount(logSummaryWriter.addCounts(lastId, maxId));
+        watermark.setLastId(maxId);
         return RepeatStatus.FINISHED;
     }
 }
@@ -1,20 +1,34 @@
 package com.learn.springbatchexample.logs;
 
+import com.learn.springbatchexample.support.AdaptiveChunkSizePolicy;
+import com.learn.springbatchexample.support.MappedCsvItemReader;
+import com.learn.springbatchexample.support.MultiRowInsertItemWriter;
+import com.learn.springbatchexample.support.StepMetricsListener;
 import jakarta.persistence.EntityManagerFactory;
+import org.springframework.batch.core.ChunkListener;
+import org.springframework.batch.core.ItemWriteListener;
 import org.springframework.batch.core.Job;
 import org.springframework.batch.core.Step;
+import org.springframework.batch.core.StepExecutionListener;
+import org.springframework.batch.core.job.builder.FlowBuilder;
 import org.springframework.batch.core.job.builder.JobBuilder;
+import org.springframework.batch.core.job.flow.Flow;
+import org.springframework.batch.core.step.builder.SimpleStepBuilder;
 import org.springframework.batch.core.step.builder.StepBuilder;
+import org.springframework.batch.item.ItemProcessor;
+import org.springframework.batch.item.ItemReader;
+import org.springframework.batch.item.ItemWriter;
 import org.springframework.batch.item.database.JpaItemWriter;
 import org.springframework.batch.item.database.builder.JpaItemWriterBuilder;
 import org.springframework.batch.item.file.FlatFileItemReader;
 import org.springframework.batch.item.file.builder.FlatFileItemReaderBuilder;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.core.io.ClassPathResource;
 import org.springframework.transaction.PlatformTransactionManager;
 
-import java.time.format.DateTimeFormatter;
+import javax.sql.DataSource;
 
 /**
  * @author prabhakar, @Date 23-06-2025
@@ -23,6 +37,22 @@ import java.time.format.DateTimeFormatter;
 @Configuration
 public class LogBatchConfiguration {
 
+    // Reader used by importLogEntriesStep: "flatfile" (FlatFileItemReader) or "mapped" (memory-mapped).
+    @Value("${logs.import.reader:flatfile}")
+    private String importReader;
+
+    // Writer used by importLogEntriesStep: "jpa" (JpaItemWriter) or "jdbc" (multi-row INSERT batches).
+    @Value("${logs.import.writer:jpa}")
+    private String importWriter;
+
+    @Value("${logs.import.rows-per-insert:100}")
+    private int importRowsPerInsert;
+
+    // Counting during the import: "off" (aggregateLogDataStep scans the new rows),
+    // "chunk" (upsert per chunk commit) or "step" (upsert once at step end).
+    @Value("${logs.import.streaming-aggregation:off}")
+    private String streamingAggregation;
+
     // Reader: Reads log entries from a CSV file.
     @Bean
     public FlatFileItemReader<LogEntry> logEntryItemReader() {
@@ -31,22 +61,18 @@ public class LogBatchConfiguration {
                 .resource(new ClassPathResource("logs.csv"))
                 .linesToSkip(1) // Skip header row.
                 .delimited()
-                .names("timestamp", "level", "component", "message")
-                .fieldSetMapper(fieldSet -> {
-                    LogEntry entry = new LogEntry();
-                    // Parse the timestamp (format example: "yyyy-MM-dd HH:mm:ss")
-                    String timestampStr = fieldSet.readString("timestamp");
-                    DateTimeFormatter formatter =
-                            DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
-                    entry.setTimestamp(java.time.LocalDateTime.parse(timestampStr, formatter));
-                    entry.setLevel(fieldSet.readString("level"));
-                    entry.setComponent(fieldSet.readString("component"));
-                    entry.setMessage(fieldSet.readString("message"));
-                    return entry;
-                })
+                .names(LogEntryMappers.FIELD_NAMES)
+                .fieldSetMapper(LogEntryMappers.fieldSetMapper())
                 .build();
     }
 
+    // Memory-mapped reader for the same file; the message column may contain commas.
+    @Bean
+    public MappedCsvItemReader<LogEntry> mappedLogEntryItemReader() {
+        return new MappedCsvItemReader<>("mappedLogEntryItemReader", new ClassPathResource("logs.csv"), 1, 4,
+                LogEntryMappers.recordMapper());
+    }
+
     // Writer: Writes LogEntry items to the DB.
     @Bean
     public JpaItemWriter<LogEntry> logEntryItemWriter(EntityManagerFactory entityManagerFactory) {
@@ -55,37 +81,121 @@ public class LogBatchConfiguration {
                 .build();
     }
 
+    // JDBC Writer: inserts many log rows per statement, the id is assigned by the database.
+    // Level and component are written as LogDictionary codes, encoding entries that have none yet.
+    @Bean
+    public MultiRowInsertItemWriter<LogEntry> jdbcLogEntryItemWriter(DataSource dataSource, LogDictionary logDictionary) {
+        return new MultiRowInsertItemWriter<>(dataSource,
+                "log_entry",
+                new String[]{"timestamp", "level_code", "component_code", "message"},
+                entry -> {
+                    if (entry.getLevelCode() == null) {
+                        logDictionary.encode(entry);
+                    }
+                    return new Object[]{
+                            entry.getTimestamp(),
+                            entry.getLevelCode(),
+                            entry.getComponentCode(),
+                            entry.getMessage()};
+                },
+                importRowsPerInsert);
+    }
+
     // Step 1: Import log entries from CSV into the database.
     @Bean
     public Step importLogEntriesStep(org.springframework.batch.core.repository.JobRepository jobRepository,
                                      PlatformTransactionManager transactionManager,
-                                     EntityManagerFactory entityManagerFactory) {
-        return new StepBuilder("importLogEntriesStep", jobRepository)
-                .<LogEntry, LogEntry>chunk(5, transactionManager)
-                .reader(logEntryItemReader())
-                .writer(logEntryItemWriter(entityManagerFactory))
-                .build();
+                                     EntityManagerFactory entityManagerFactory,
+                                     DataSource dataSource,
+                                     LogSummaryWriter logSummaryWriter,
+                                     LogDictionary logDictionary,
+                                     StepMetricsListener stepMetricsListener,
+                                     AdaptiveChunkSizePolicy chunkSizePolicy) {
+        ItemReader<LogEntry> reader = "mapped".equals(importReader)
+                ? mappedLogEntryItemReader()
+                : logEntryItemReader();
+        ItemWriter<LogEntry> writer = "jdbc".equals(importWriter)
+                ? jdbcLogEntryItemWriter(dataSource, logDictionary)
+                : logEntryItemWriter(entityManagerFactory);
+        // Codes and canonical strings: the items of a chunk share one instance of each repeated value.
+        ItemProcessor<LogEntry, LogEntry> encoder = logDictionary::encode;
+        SimpleStepBuilder<LogEntry, LogEntry> step = new StepBuilder("importLogEntriesStep", jobRepository)
+                .<LogEntry, LogEntry>chunk(chunkSizePolicy, transactionManager)
+                .reader(reader)
+                .processor(encoder)
+                .writer(writer)
+                .listener((StepExecutionListener) stepMetricsListener)
+                .listener((ChunkListener) stepMetricsListener)
+                .listener((ItemWriteListener<Object>) stepMetricsListener)
+                .listener((StepExecutionListener) chunkSizePolicy)
+                .listener((ChunkListener) chunkSizePolicy);
+        if (isStreamingAggregation()) {
+            StreamingLogAggregator aggregator = new StreamingLogAggregator(
+                    StreamingLogAggregator.Mode.valueOf(streamingAggregation.toUpperCase()),
+                    logSummaryWriter, transactionManager);
+            step.listener((ItemWriteListener<LogEntry>) aggregator)
+                    .listener((ChunkListener) aggregator)
+                    .listener((StepExecutionListener) aggregator)
+                    .stream(aggregator);
+        }
+        return step.build();
+    }
+
+    private boolean isStreamingAggregation() {
+        return !"off".equals(streamingAggregation);
     }
 
     // Step 2: Aggregate log data using a custom Tasklet.
     @Bean
     public Step aggregateLogDataStep(org.springframework.batch.core.repository.JobRepository jobRepository,
                                      PlatformTransactionManager transactionManager,
-                                     LogAggregationTasklet logAggregationTasklet) {
+                                     LogAggregationTasklet logAggregationTasklet,
+                                     StepMetricsListener stepMetricsListener) {
         return new StepBuilder("aggregateLogDataStep", jobRepository)
                 .tasklet(logAggregationTasklet, transactionManager)
+                .listener((StepExecutionListener) stepMetricsListener)
+                .build();
+    }
+
+    // Flow: import, then aggregate. With streaming aggregation the import step already maintains log_summary
+    // and the aggregation finds nothing above the watermark, unless other writers' entries made it step aside.
+    // Shared by logAggregationJob and the nightly job.
+    @Bean
+    public Flow logAggregationFlow(Step importLogEntriesStep,
+                                   Step aggregateLogDataStep) {
+        return new FlowBuilder<Flow>("logAggregationFlow")
+                .start(importLogEntriesStep)
+                .next(aggregateLogDataStep)
+                .build();
+    }
+
+    // Partition maintenance and retention for log_entry.
+    @Bean
+    public Step logRetentionStep(org.springframework.batch.core.repository.JobRepository jobRepository,
+                                 PlatformTransactionManager transactionManager,
+                                 LogRetentionTasklet logRetentionTasklet,
+                                 StepMetricsListener stepMetricsListener) {
+        return new StepBuilder("logRetentionStep", jobRepository)
+                .tasklet(logRetentionTasklet, transactionManager)
+                .listener((StepExecutionListener) stepMetricsListener)
+                .build();
+    }
+
+    @Bean
+    public Job logRetentionJob(org.springframework.batch.core.repository.JobRepository jobRepository,
+                               Step logRetentionStep) {
+        return new JobBuilder("logRetentionJob", jobRepository)
+                .start(logRetentionStep)
                 .build();
     }
 
     // Job: Combine both steps into a single job.
     @Bean
     public Job logAggregationJob(org.springframework.batch.core.repository.JobRepository jobRepository,
-                                 PlatformTransactionManager transactionManager,
-                                 Step importLogEntriesStep,
-                                 Step aggregateLogDataStep) {
+                                 Flow logAggregationFlow) {
         return new JobBuilder("logAggregationJob", jobRepository)
-                .start(importLogEntriesStep)
-                .next(aggregateLogDataStep)
+                .start(logAggregationFlow)
+                .end()
                 .build();
     }
 }
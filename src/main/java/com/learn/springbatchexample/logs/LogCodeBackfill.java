@@ -0,0 +1,95 @@
+package com.learn.springbatchexample.logs;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.jdbc.BadSqlGrammarException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Fills in level_code and component_code of the log_entry rows written before the
+ * columns were dictionary encoded. Those rows still have the old level and component
+ * VARCHAR columns (schema updates do not drop columns): their distinct values are
+ * added to the LogDictionary, then the codes are set with UPDATEs joined to
+ * log_dictionary, in id slices that commit one by one. Rows that have codes are left
+ * alone, so the backfill can be interrupted and simply runs again on the next start.
+ */
+@Component
+public class LogCodeBackfill implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(LogCodeBackfill.class);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final LogDictionary logDictionary;
+    private final boolean enabled;
+    private final int sliceSize;
+
+    public LogCodeBackfill(DataSource dataSource, LogDictionary logDictionary,
+                           @Value("${logs.dictionary.backfill.enabled:true}") boolean enabled,
+                           @Value("${logs.dictionary.backfill.slice-size:10000}") int sliceSize) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.logDictionary = logDictionary;
+        this.enabled = enabled;
+        this.sliceSize = sliceSize;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (enabled) {
+            backfill();
+        }
+    }
+
+    // Returns the number of rows that got codes.
+    public long backfill() {
+        if (!hasLegacyColumns()) {
+            return 0;
+        }
+        long updated = backfill(LogDictionary.Kind.LEVEL, "level", "level_code")
+                + backfill(LogDictionary.Kind.COMPONENT, "component", "component_code");
+        if (updated > 0) {
+            log.info("Backfilled dictionary codes of {} log_entry columns", updated);
+        }
+        return updated;
+    }
+
+    private boolean hasLegacyColumns() {
+        try {
+            jdbcTemplate.queryForList("SELECT level, component FROM log_entry WHERE 1 = 0");
+            return true;
+        } catch (BadSqlGrammarException e) {
+            return false;
+        }
+    }
+
+    private long backfill(LogDictionary.Kind kind, String column, String codeColumn) {
+        String missing = " WHERE " + codeColumn + " IS NULL AND " + column + " IS NOT NULL";
+        Map<String, Object> range = jdbcTemplate.queryForMap("SELECT MIN(id) AS first_id, MAX(id) AS last_id " +
+                "FROM log_entry" + missing);
+        if (range.get("first_id") == null) {
+            return 0;
+        }
+        List<String> names = jdbcTemplate.queryForList("SELECT DISTINCT " + column + " FROM log_entry" + missing,
+                String.class);
+        for (String name : names) {
+            logDictionary.code(kind, name);
+        }
+
+        long first = ((Number) range.get("first_id")).longValue();
+        long last = ((Number) range.get("last_id")).longValue();
+        String update = "UPDATE log_entry SET " + codeColumn + " = (SELECT d.id FROM log_dictionary d " +
+                "WHERE d.kind = ? AND d.name = log_entry." + column + ")" + missing + " AND id BETWEEN ? AND ?";
+        long updated = 0;
+        for (long from = first; from <= last; from += sliceSize) {
+            updated += jdbcTemplate.update(update, kind.name(), from, Math.min(last, from + sliceSize - 1));
+        }
+        return updated;
+    }
+}
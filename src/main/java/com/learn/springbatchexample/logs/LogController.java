@@ -1,16 +1,36 @@
 package com.learn.springbatchexample.logs;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.learn.springbatchexample.jobs.JobLaunchService;
+import com.learn.springbatchexample.jobs.JobLimitExceededException;
 import org.springframework.batch.core.Job;
+import org.springframework.batch.core.JobExecution;
 import org.springframework.batch.core.JobParameters;
 import org.springframework.batch.core.JobParametersBuilder;
-import org.springframework.batch.core.launch.JobLauncher;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
-import java.util.List;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Map;
 
 /**
  * @author prabhakar, @Date 23-06-2025
@@ -19,27 +39,82 @@ import java.util.List;
 @RequestMapping("/logs")
 public class LogController {
 
+    private static final int MAX_PAGE_SIZE = 1000;
+
+    @Autowired
+    private LogQueryRepository logQueryRepository;
+
     @Autowired
-    private LogEntryRepository logEntryRepository;
+    private LogSummaryCache logSummaryCache;
 
     @Autowired
-    private LogSummaryRepository logSummaryRepository;
+    private ObjectMapper objectMapper;
 
     @Autowired
-    private JobLauncher jobLauncher;
+    private JobLaunchService jobLaunchService;
 
     @Autowired
     private Job logAggregationJob;
 
 
+    // Keyset pagination: pass the returned nextAfterId as afterId to get the next page.
     @GetMapping
-    public List<LogEntry> getAllLogs() {
-        return logEntryRepository.findAll();
+    public KeysetPage<LogEntry> getLogs(@RequestParam(required = false) String level,
+                                        @RequestParam(required = false) String component,
+                                        @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+                                        @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+                                        @RequestParam(defaultValue = "0") long afterId,
+                                        @RequestParam(defaultValue = "100") int limit) {
+        return logQueryRepository.findLogs(new LogFilter(level, component, from, to), afterId, pageSize(limit));
     }
 
     @GetMapping("/summary")
-    public List<LogSummary> getLogSummary() {
-        return logSummaryRepository.findAll();
+    public KeysetPage<LogSummary> getLogSummary(@RequestParam(required = false) String level,
+                                                @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                                @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+                                                @RequestParam(defaultValue = "0") long afterId,
+                                                @RequestParam(defaultValue = "100") int limit) {
+        return logSummaryCache.findSummaries(level, from, to, afterId, pageSize(limit));
+    }
+
+    @GetMapping("/summary/cache")
+    public Map<String, Object> getLogSummaryCacheStats() {
+        CacheStats stats = logSummaryCache.stats();
+        return Map.of("size", logSummaryCache.size(),
+                "hits", stats.hitCount(),
+                "misses", stats.missCount(),
+                "hitRate", stats.hitRate(),
+                "evictions", stats.evictionCount());
+    }
+
+    // Streams every matching entry as NDJSON (one object per line) or CSV, straight from a database cursor.
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportLogs(@RequestParam(defaultValue = "ndjson") String format,
+                                                            @RequestParam(required = false) String level,
+                                                            @RequestParam(required = false) String component,
+                                                            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+                                                            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        LogFilter filter = new LogFilter(level, component, from, to);
+        boolean csv = "csv".equalsIgnoreCase(format);
+        StreamingResponseBody body = out -> {
+            Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 64 * 1024);
+            if (csv) {
+                writer.write("id,timestamp,level,component,message\n");
+                logQueryRepository.streamLogs(filter, entry -> writeCsv(writer, entry));
+                writer.flush();
+            } else {
+                JsonGenerator generator = objectMapper.getFactory().createGenerator(writer);
+                // Root values are separated by a newline, which makes the output NDJSON.
+                generator.setRootValueSeparator(new SerializedString("\n"));
+                logQueryRepository.streamLogs(filter, entry -> writeJson(generator, entry));
+                generator.writeRaw('\n');
+                generator.flush();
+            }
+        };
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=logs." + (csv ? "csv" : "ndjson"))
+                .contentType(csv ? new MediaType("text", "csv") : new MediaType("application", "x-ndjson"))
+                .body(body);
     }
 
     @PostMapping("/trigger")
@@ -48,11 +123,54 @@ public class LogController {
             JobParameters jobParameters = new JobParametersBuilder()
                     .addLong("time", System.currentTimeMillis())
                     .toJobParameters();
-            jobLauncher.run(logAggregationJob, jobParameters);
-            return "Log aggregation job triggered successfully.";
+            JobExecution execution = jobLaunchService.launch(logAggregationJob, jobParameters);
+            return "Log aggregation job triggered successfully. Execution id: " + execution.getId();
+        } catch (JobLimitExceededException e) {
+            // Answered with 429 Too Many Requests through its @ResponseStatus.
+            throw e;
         } catch (Exception e) {
             e.printStackTrace();
             return "Error triggering log aggregation job: " + e.getMessage();
         }
     }
+
+    private static int pageSize(int limit) {
+        return Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+    }
+
+    private static void writeJson(JsonGenerator generator, LogEntry entry) {
+        try {
+            generator.writeObject(entry);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void writeCsv(Writer writer, LogEntry entry) {
+        try {
+            writer.write(String.valueOf(entry.getId()));
+            writer.write(',');
+            writer.write(String.valueOf(entry.getTimestamp()));
+            writer.write(',');
+            writer.write(csvValue(entry.getLevel()));
+            writer.write(',');
+            writer.write(csvValue(entry.getComponent()));
+            writer.write(',');
+            writer.write(csvValue(entry.getMessage()));
+            writer.write('\n');
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // Quotes a value that holds a delimiter, quote or line break, doubling embedded quotes.
+    private static String csvValue(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
 }
@@ -0,0 +1,176 @@
+package com.learn.springbatchexample.logs;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Dictionary encoding of the repetitive log_entry columns: level and component are
+ * stored as small integer codes that refer to log_dictionary. The lookup tables are
+ * kept in memory in both directions, and decoding always returns the same String
+ * instance for a code, so readers share one copy of every value.
+ * <p>
+ * A value seen for the first time is added in a transaction of its own. A code is then
+ * never rolled back while it is still cached, even when the chunk that introduced it is.
+ * Messages are not encoded (they are free text), but up to message-cache-size distinct
+ * ones are canonicalized the same way, which covers the templated messages of the generator.
+ */
+@Component
+public class LogDictionary {
+
+    public enum Kind {LEVEL, COMPONENT}
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate newTransaction;
+    private final int messageCacheSize;
+
+    private final Map<Kind, Map<String, Short>> codes = new ConcurrentHashMap<>();
+    private final Map<Short, String> values = new ConcurrentHashMap<>();
+    private final Map<String, String> messages = new ConcurrentHashMap<>();
+    private final ReentrantLock addLock = new ReentrantLock();
+
+    public LogDictionary(DataSource dataSource, PlatformTransactionManager transactionManager,
+                         @Value("${logs.dictionary.message-cache-size:1024}") int messageCacheSize) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.newTransaction = new TransactionTemplate(transactionManager);
+        this.newTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.messageCacheSize = messageCacheSize;
+        for (Kind kind : Kind.values()) {
+            codes.put(kind, new ConcurrentHashMap<>());
+        }
+    }
+
+    // Replaces the entry's strings with their canonical instances and sets its codes.
+    public LogEntry encode(LogEntry entry) {
+        entry.setLevelCode(code(Kind.LEVEL, entry.getLevel()));
+        entry.setLevel(decode(entry.getLevelCode()));
+        entry.setComponentCode(code(Kind.COMPONENT, entry.getComponent()));
+        entry.setComponent(decode(entry.getComponentCode()));
+        entry.setMessage(canonicalMessage(entry.getMessage()));
+        return entry;
+    }
+
+    // Code of the value, added to the dictionary if it is new.
+    public Short code(Kind kind, String value) {
+        if (value == null) {
+            return null;
+        }
+        Short code = codes.get(kind).get(value);
+        return code != null ? code : add(kind, value);
+    }
+
+    // Code of the value if it is in the dictionary, for filters: an unknown value matches no row.
+    public Short find(Kind kind, String value) {
+        Short code = codes.get(kind).get(value);
+        if (code == null) {
+            // It may have been added by another instance.
+            code = load(kind, value);
+        }
+        return code;
+    }
+
+    public String decode(Short code) {
+        if (code == null) {
+            return null;
+        }
+        String value = values.get(code);
+        if (value == null) {
+            List<Map<String, Object>> rows = jdbcTemplate.queryForList(
+                    "SELECT kind, name FROM log_dictionary WHERE id = ?", code.intValue());
+            if (rows.isEmpty()) {
+                throw new IllegalStateException("Unknown log dictionary code " + code);
+            }
+            register(Kind.valueOf((String) rows.get(0).get("kind")), (String) rows.get(0).get("name"), code);
+            value = values.get(code);
+        }
+        return value;
+    }
+
+    public String canonicalMessage(String message) {
+        if (message == null) {
+            return null;
+        }
+        String canonical = messages.get(message);
+        if (canonical != null) {
+            return canonical;
+        }
+        if (messages.size() >= messageCacheSize) {
+            return message;
+        }
+        canonical = messages.putIfAbsent(message, message);
+        return canonical != null ? canonical : message;
+    }
+
+    // A ReentrantLock rather than synchronized: the JDBC calls inside would pin a virtual thread.
+    private Short add(Kind kind, String value) {
+        addLock.lock();
+        try {
+            Short code = codes.get(kind).get(value);
+            if (code != null) {
+                return code;
+            }
+            code = load(kind, value);
+            return code != null ? code : insert(kind, value);
+        } finally {
+            addLock.unlock();
+        }
+    }
+
+    private Short insert(Kind kind, String value) {
+        try {
+            Number id = newTransaction.execute(status -> {
+                KeyHolder keyHolder = new GeneratedKeyHolder();
+                jdbcTemplate.update(connection -> {
+                    PreparedStatement statement = connection.prepareStatement(
+                            "INSERT INTO log_dictionary (kind, name) VALUES (?, ?)", Statement.RETURN_GENERATED_KEYS);
+                    statement.setString(1, kind.name());
+                    statement.setString(2, value);
+                    return statement;
+                }, keyHolder);
+                return keyHolder.getKey();
+            });
+            return register(kind, value, toCode(id));
+        } catch (DuplicateKeyException e) {
+            // Added concurrently by another instance. Read it in a new transaction too: the caller's
+            // snapshot (REPEATABLE READ) may predate that insert.
+            Short code = newTransaction.execute(status -> load(kind, value));
+            if (code == null) {
+                throw new IllegalStateException("log_dictionary entry " + kind + " '" + value + "' not found", e);
+            }
+            return code;
+        }
+    }
+
+    private Short load(Kind kind, String value) {
+        List<Integer> ids = jdbcTemplate.queryForList("SELECT id FROM log_dictionary WHERE kind = ? AND name = ?",
+                Integer.class, kind.name(), value);
+        return ids.isEmpty() ? null : register(kind, value, toCode(ids.get(0)));
+    }
+
+    private Short register(Kind kind, String value, Short code) {
+        String canonical = values.computeIfAbsent(code, c -> value);
+        codes.get(kind).putIfAbsent(canonical, code);
+        return code;
+    }
+
+    private static Short toCode(Number id) {
+        if (id == null || id.intValue() > Short.MAX_VALUE) {
+            throw new IllegalStateException("log_dictionary is full, cannot add code " + id);
+        }
+        return id.shortValue();
+    }
+}
@@ -0,0 +1,43 @@
+package com.learn.springbatchexample.logs;
+
+import jakarta.persistence.*;
+
+/**
+ * One value of a LogDictionary lookup table. Its id is the small integer code stored in
+ * log_entry in place of the value.
+ */
+
+@Entity
+@Table(name = "log_dictionary",
+        uniqueConstraints = @UniqueConstraint(name = "uk_log_dictionary_kind_name", columnNames = {"kind", "name"}))
+public class LogDictionaryEntry {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Integer id;
+
+    @Column(nullable = false, length = 16)
+    private String kind;
+
+    @Column(nullable = false)
+    private String name;
+
+    public Integer getId() {
+        return id;
+    }
+    public void setId(Integer id) {
+        this.id = id;
+    }
+    public String getKind() {
+        return kind;
+    }
+    public void setKind(String kind) {
+        this.kind = kind;
+    }
+    public String getName() {
+        return name;
+    }
+    public void setName(String name) {
+        this.name = name;
+    }
+}
@@ -1,5 +1,6 @@
 package com.learn.springbatchexample.logs;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 
 import java.time.LocalDateTime;
@@ -9,7 +10,8 @@ import java.time.LocalDateTime;
  */
 
 @Entity
-@Table(name = "log_entry")
+// (level_code, id) serves the level-filtered keyset pages of GET /logs
+@Table(name = "log_entry", indexes = @Index(name = "idx_log_entry_level_code_id", columnList = "level_code, id"))
 public class LogEntry {
 
     @Id
@@ -17,9 +19,18 @@ public class LogEntry {
     private Long id;
 
     private LocalDateTime timestamp;
+
+    // Stored as LogDictionary codes; the strings are filled in by LogDictionary.encode and by the readers.
+    @Transient
     private String level;
+    @Transient
     private String component;
 
+    @Column(name = "level_code")
+    private Short levelCode;
+    @Column(name = "component_code")
+    private Short componentCode;
+
     @Column(length = 1024)
     private String message;
     // Getters and setters
@@ -47,6 +58,20 @@ public class LogEntry {
     public void setComponent(String component) {
         this.component = component;
     }
+    @JsonIgnore
+    public Short getLevelCode() {
+        return levelCode;
+    }
+    public void setLevelCode(Short levelCode) {
+        this.levelCode = levelCode;
+    }
+    @JsonIgnore
+    public Short getComponentCode() {
+        return componentCode;
+    }
+    public void setComponentCode(Short componentCode) {
+        this.componentCode = componentCode;
+    }
     public String getMessage() {
         return message;
     }
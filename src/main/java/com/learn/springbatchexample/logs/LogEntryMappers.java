@@ -0,0 +1,57 @@
+package com.learn.springbatchexample.logs;
+
+import com.learn.springbatchexample.support.FixedFormatParsers;
+import com.learn.springbatchexample.support.MappedCsvItemReader;
+import org.springframework.batch.item.file.mapping.FieldSetMapper;
+
+/**
+ * Line mappers for logs.csv (timestamp,level,component,message), one for each reader type.
+ */
+public final class LogEntryMappers {
+
+    public static final String[] FIELD_NAMES = {"timestamp", "level", "component", "message"};
+
+    private LogEntryMappers() {
+    }
+
+    // Mapper for the FlatFileItemReader.
+    public static FieldSetMapper<LogEntry> fieldSetMapper() {
+        return fieldSet -> {
+            LogEntry entry = new LogEntry();
+            // Parse the timestamp (format example: "yyyy-MM-dd HH:mm:ss")
+            entry.setTimestamp(FixedFormatParsers.parseDateTime(fieldSet.readString("timestamp")));
+            entry.setLevel(fieldSet.readString("level"));
+            entry.setComponent(fieldSet.readString("component"));
+            entry.setMessage(fieldSet.readString("message"));
+            return entry;
+        };
+    }
+
+    // Mapper for the MappedCsvItemReader; the message column may contain commas.
+    public static MappedCsvItemReader.RecordMapper<LogEntry> recordMapper() {
+        return record -> {
+            LogEntry entry = new LogEntry();
+            entry.setTimestamp(record.dateTime(0));
+            entry.setLevel(record.string(1));
+            entry.setComponent(record.string(2));
+            entry.setMessage(record.string(3));
+            return entry;
+        };
+    }
+
+    // Parses one raw line of logs.csv; the message is everything after the third comma.
+    public static LogEntry parseLine(String line) {
+        int first = line.indexOf(',');
+        int second = first < 0 ? -1 : line.indexOf(',', first + 1);
+        int third = second < 0 ? -1 : line.indexOf(',', second + 1);
+        if (third < 0) {
+            throw new IllegalArgumentException("Expected 4 fields: " + line);
+        }
+        LogEntry entry = new LogEntry();
+        entry.setTimestamp(FixedFormatParsers.parseDateTime(line, 0, first));
+        entry.setLevel(line.substring(first + 1, second));
+        entry.setComponent(line.substring(second + 1, third));
+        entry.setMessage(line.substring(third + 1));
+        return entry;
+    }
+}
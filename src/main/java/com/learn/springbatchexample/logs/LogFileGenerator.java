@@ -1,5 +1,6 @@
 package com.learn.springbatchexample.logs;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
@@ -19,14 +20,18 @@ import java.util.Random;
 @Component
 public class LogFileGenerator {
 
-    private static final Path LOG_FILE_PATH = Paths.get("src/main/resources/logs.csv");
-    private static final DateTimeFormatter FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    static final Path LOG_FILE_PATH = Paths.get("src/main/resources/logs.csv");
+    static final DateTimeFormatter FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
     private final Random random = new Random();
 
+    // "scheduled" writes one line every 5 seconds; "load" hands the file over to LogLoadGenerator; "off" writes nothing.
+    @Value("${logs.generator.mode:scheduled}")
+    private String mode;
+
     // Sample values for log properties
-    private final String[] levels = {"INFO", "ERROR", "WARN"};
-    private final String[] components = {"Auth", "Payment", "Order", "Database", "Notification"};
-    private final String[] messages = {
+    static final String[] LEVELS = {"INFO", "ERROR", "WARN"};
+    static final String[] COMPONENTS = {"Auth", "Payment", "Order", "Database", "Notification"};
+    static final String[] MESSAGES = {
             "User logged in successfully.",
             "Payment processed successfully.",
             "Order delayed due to inventory check.",
@@ -48,15 +53,19 @@ public class LogFileGenerator {
     // This method generates a log every 5 seconds.
     @Scheduled(fixedDelay = 5000)
     public void generateRandomLogEntry() {
+        if (!"scheduled".equals(mode)) {
+            return;
+        }
         String timestamp = LocalDateTime.now().format(FORMATTER);
-        String level = levels[random.nextInt(levels.length)];
-        String component = components[random.nextInt(components.length)];
-        String message = messages[random.nextInt(messages.length)];
+        String level = LEVELS[random.nextInt(LEVELS.length)];
+        String component = COMPONENTS[random.nextInt(COMPONENTS.length)];
+        String message = MESSAGES[random.nextInt(MESSAGES.length)];
 
         String logEntry = String.format("%s,%s,%s,%s\n", timestamp, level, component, message);
 
         try {
-            Files.write(LOG_FILE_PATH, logEntry.getBytes(), StandardOpenOption.APPEND);
+            // CREATE: the monitor may have just rotated the file away.
+            Files.write(LOG_FILE_PATH, logEntry.getBytes(), StandardOpenOption.CREATE, StandardOpenOption.APPEND);
             System.out.println("Generated log: " + logEntry.trim());
         } catch (IOException ex) {
             ex.printStackTrace();
@@ -1,5 +1,7 @@
 package com.learn.springbatchexample.logs;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.batch.core.Job;
 import org.springframework.batch.core.JobParameters;
 import org.springframework.batch.core.JobParametersBuilder;
@@ -9,7 +11,12 @@ import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
 import java.io.File;
-import java.io.PrintWriter;
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
 
 /**
  * @author prabhakar, @Date 23-06-2025
@@ -17,10 +24,20 @@ import java.io.PrintWriter;
 @Component
 public class LogFileMonitor {
 
+    private static final Logger log = LoggerFactory.getLogger(LogFileMonitor.class);
+
     // Define the file path and size limit (5MB).
     @Value("${log.csv.path}")
     private String logFilePath;
 
+    // Rotated files are moved here.
+    @Value("${logs.archive.dir:archive}")
+    private String archiveDir;
+
+    // In tail mode LogFileTailer ingests continuously, so this monitor only rotates the file.
+    @Value("${logs.tail.enabled:false}")
+    private boolean tailEnabled;
+
     private static final long SIZE_LIMIT = 5 * 1024 * 1024; // 5 MB in bytes
 
     private final JobLauncher jobLauncher;
@@ -37,18 +54,18 @@ public class LogFileMonitor {
         File logFile = new File(logFilePath);
         if (logFile.exists() && logFile.length() >= SIZE_LIMIT) {
             try {
-                // Launch the log aggregation batch job.
-                JobParameters jobParameters = new JobParametersBuilder()
-                        .addLong("time", System.currentTimeMillis())
-                        .toJobParameters();
+                if (!tailEnabled) {
+                    // Launch the log aggregation batch job.
+                    JobParameters jobParameters = new JobParametersBuilder()
+                            .addLong("time", System.currentTimeMillis())
+                            .toJobParameters();
 
-                jobLauncher.run(logAggregationJob, jobParameters);
+                    jobLauncher.run(logAggregationJob, jobParameters);
+                }
 
-                // Option 1: Clear the file content after processing.
-                clearFileContent(logFile);
-
-                // Option 2: Alternatively, archive the processed file:
-                // archiveFile(logFile);
+                // Rotate instead of truncating: truncation raced with LogFileGenerator appends
+                // and could drop lines written while the job ran.
+                archiveFile(logFile);
 
             } catch (Exception e) {
                 // Handle exceptions or add logging for failures.
@@ -57,26 +74,27 @@ public class LogFileMonitor {
         }
     }
 
-    private void clearFileContent(File file) throws Exception {
-        // Overwrites the file with empty content to clear the logs.
-        try (PrintWriter writer = new PrintWriter(file)) {
-            writer.print("");
-        }
-    }
-
-    // Optionally, you can implement a method to move the file to an archive directory.
-    /*
-    private void archiveFile(File file) throws Exception {
-        File archiveDir = new File("archive");
-        if (!archiveDir.exists()) {
-            archiveDir.mkdirs();
+    // Moves the file to the archive directory and starts a fresh one with the CSV header.
+    private void archiveFile(File file) throws IOException {
+        File archive = new File(archiveDir);
+        if (!archive.exists()) {
+            archive.mkdirs();
         }
         String archiveFileName = file.getName() + "_" + System.currentTimeMillis();
-        File archivedFile = new File(archiveDir, archiveFileName);
-        Files.move(file.toPath(), archivedFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
-        // After archiving, you might need to create a new empty log file.
-        file.createNewFile();
+        File archivedFile = new File(archive, archiveFileName);
+        try {
+            Files.move(file.toPath(), archivedFile.toPath(), StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            // The archive is on another file system: copy and delete. Appends racing the copy may be lost,
+            // and the copy has a new file key, which LogFileTailer cannot match after a stop.
+            log.warn("{} is not on the file system of {}; moving without ATOMIC_MOVE", archive, file);
+            Files.move(file.toPath(), archivedFile.toPath());
+        }
+        try {
+            Files.write(file.toPath(), "timestamp,level,component,message\n".getBytes(), StandardOpenOption.CREATE_NEW);
+        } catch (FileAlreadyExistsException e) {
+            // The generator appended first and created the file; the header is optional for readers that check it.
+        }
     }
-    */
 
 }
@@ -0,0 +1,336 @@
+package com.learn.springbatchexample.logs;
+
+import com.learn.springbatchexample.support.MultiRowInsertItemWriter;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.batch.item.Chunk;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Follows the log CSV like {@code tail -f}: a WatchService wakes it up when the file
+ * changes (or after at most max-latency-ms), and complete lines appended since the
+ * stored byte offset are inserted in small batches. Each batch and its new offset
+ * commit in one transaction, so a restart neither loses nor repeats lines.
+ * <p>
+ * Rotation is expected as a rename plus a fresh file (see LogFileMonitor): the renamed
+ * file is still open here. Once the new file shows up, the old one is drained to its end
+ * again, for lines appended just before the rename, and a last line without a newline is
+ * taken as it is. The offset is stored with the file key it belongs to, so after a
+ * rotation while stopped the renamed file is found, next to the log or in
+ * logs.archive.dir, and drained first. A rotation that had to copy the file to another
+ * file system gives the copy a new key; lines of it not read before the stop are lost.
+ * <p>
+ * The read buffer grows for lines longer than it, up to max-line-bytes; longer lines
+ * are skipped.
+ */
+@Component
+@ConditionalOnProperty(name = "logs.tail.enabled", havingValue = "true")
+public class LogFileTailer implements SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(LogFileTailer.class);
+
+    private static final int READ_BUFFER_SIZE = 1024 * 1024;
+    private static final long STOP_TIMEOUT_MILLIS = 5000;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final MultiRowInsertItemWriter<LogEntry> jdbcLogEntryItemWriter;
+    private final TransactionTemplate transactionTemplate;
+    private final Path logFile;
+    private final Path archiveDir;
+    private final long maxLatencyMillis;
+    private final int maxBatchLines;
+    private final int maxLineBytes;
+
+    private ByteBuffer buffer = ByteBuffer.allocate(READ_BUFFER_SIZE);
+    private volatile boolean running;
+    private Thread thread;
+    private FileChannel channel;
+    private String fileKey;
+    private long position;
+    // Inside a line longer than maxLineBytes: everything up to the next newline is dropped.
+    private boolean skippingLine;
+
+    public LogFileTailer(MultiRowInsertItemWriter<LogEntry> jdbcLogEntryItemWriter,
+                         PlatformTransactionManager transactionManager,
+                         @Value("${log.csv.path}") String logFilePath,
+                         @Value("${logs.archive.dir:archive}") String archiveDir,
+                         @Value("${logs.tail.max-latency-ms:1000}") long maxLatencyMillis,
+                         @Value("${logs.tail.max-batch-lines:500}") int maxBatchLines,
+                         @Value("${logs.tail.max-line-bytes:8388608}") int maxLineBytes) {
+        this.jdbcLogEntryItemWriter = jdbcLogEntryItemWriter;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.logFile = Paths.get(logFilePath).toAbsolutePath();
+        // Resolved like LogFileMonitor resolves it, against the working directory.
+        this.archiveDir = Paths.get(archiveDir).toAbsolutePath();
+        this.maxLatencyMillis = maxLatencyMillis;
+        this.maxBatchLines = maxBatchLines;
+        this.maxLineBytes = Math.max(maxLineBytes, READ_BUFFER_SIZE);
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        thread = new Thread(this::follow, "log-file-tailer");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        if (thread == null) {
+            return;
+        }
+        try {
+            // The watch poll returns within maxLatencyMillis and a batch in progress commits first.
+            thread.join(maxLatencyMillis + STOP_TIMEOUT_MILLIS);
+            if (thread.isAlive()) {
+                thread.interrupt();
+                thread.join(STOP_TIMEOUT_MILLIS);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        thread = null;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void follow() {
+        try (WatchService watchService = FileSystems.getDefault().newWatchService()) {
+            logFile.getParent().register(watchService,
+                    StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+            resume();
+            while (running) {
+                try {
+                    ingestAvailable();
+                } catch (IOException | RuntimeException e) {
+                    log.error("Tailing {} failed, retrying", logFile, e);
+                    closeChannel();
+                }
+                // Bounded latency: wake up on a change or after maxLatencyMillis at the latest.
+                WatchKey key = watchService.poll(maxLatencyMillis, TimeUnit.MILLISECONDS);
+                if (key != null) {
+                    key.pollEvents();
+                    key.reset();
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            log.error("Unable to watch {}", logFile, e);
+        } finally {
+            closeChannel();
+        }
+    }
+
+    private void ingestAvailable() throws IOException {
+        while (running) {
+            if (channel == null) {
+                if (!Files.exists(logFile)) {
+                    return;
+                }
+                channel = FileChannel.open(logFile, StandardOpenOption.READ);
+                fileKey = currentFileKey();
+                if (channel.size() < position) {
+                    // Not the file the stored offset belongs to (file systems without file keys).
+                    position = 0;
+                }
+            }
+            while (running && readBatch(false)) {
+                // keep going while whole batches are available
+            }
+            String current = Files.exists(logFile) ? currentFileKey() : null;
+            if (!running || current == null || Objects.equals(current, fileKey)) {
+                return;
+            }
+            // Rotated: nothing is appended to the old file any more. Drain what was appended since the read
+            // above, including a last line without a newline, then continue with the fresh one from its start.
+            while (running && readBatch(true)) {
+                // keep going until the end of the old file
+            }
+            if (!running) {
+                return;
+            }
+            closeChannel();
+            position = 0;
+            skippingLine = false;
+            fileKey = current;
+            saveOffset(0);
+        }
+    }
+
+    // Inserts up to maxBatchLines complete lines after the offset; returns true if it made progress.
+    // With endOfFile (a rotated file, which no longer grows) an unterminated last line counts as complete.
+    private boolean readBatch(boolean endOfFile) throws IOException {
+        buffer.clear();
+        int read = channel.read(buffer, position);
+        if (read <= 0) {
+            return false;
+        }
+        byte[] bytes = buffer.array();
+        List<LogEntry> entries = new ArrayList<>();
+        int lineStart = 0;
+        int consumed = 0;
+        int lines = 0;
+        for (int i = 0; i < read && lines < maxBatchLines; i++) {
+            if (bytes[i] != '\n') {
+                continue;
+            }
+            int start = lineStart;
+            int lineEnd = i > start && bytes[i - 1] == '\r' ? i - 1 : i;
+            lineStart = i + 1;
+            consumed = lineStart;
+            lines++;
+            if (skippingLine) {
+                // The rest of an oversized line.
+                skippingLine = false;
+                continue;
+            }
+            addLine(bytes, start, lineEnd, entries);
+        }
+        if (endOfFile && lineStart < read && lines < maxBatchLines && read < buffer.capacity()) {
+            // The whole rest of the file is in the buffer and ends without a newline.
+            if (skippingLine) {
+                skippingLine = false;
+            } else {
+                addLine(bytes, lineStart, read, entries);
+            }
+            consumed = read;
+        }
+        if (consumed == 0) {
+            if (read < buffer.capacity()) {
+                // Only a partial line so far; it will be complete on a later poll.
+                return false;
+            }
+            // A full buffer without a newline: grow it for the line, or skip the line past maxLineBytes.
+            if (!skippingLine && buffer.capacity() < maxLineBytes) {
+                buffer = ByteBuffer.allocate((int) Math.min(2L * buffer.capacity(), maxLineBytes));
+                return true;
+            }
+            if (!skippingLine) {
+                log.warn("Skipping a log line longer than {} bytes at offset {}", maxLineBytes, position);
+                skippingLine = true;
+            }
+            consumed = read;
+        }
+        long newPosition = position + consumed;
+        transactionTemplate.executeWithoutResult(status -> {
+            if (!entries.isEmpty()) {
+                jdbcLogEntryItemWriter.write(new Chunk<>(entries));
+            }
+            storeOffset(newPosition);
+        });
+        position = newPosition;
+        return true;
+    }
+
+    private void addLine(byte[] bytes, int start, int end, List<LogEntry> entries) {
+        String line = new String(bytes, start, end - start, StandardCharsets.UTF_8);
+        if (line.isBlank() || line.startsWith("timestamp,")) {
+            return;
+        }
+        try {
+            entries.add(LogEntryMappers.parseLine(line));
+        } catch (IllegalArgumentException e) {
+            log.warn("Skipping malformed log line at offset {}: {}", position + end, line);
+        }
+    }
+
+    // Null on file systems without file keys.
+    private String currentFileKey() throws IOException {
+        return fileKey(logFile);
+    }
+
+    private static String fileKey(Path file) throws IOException {
+        return Objects.toString(Files.readAttributes(file, BasicFileAttributes.class).fileKey(), null);
+    }
+
+    // Continues from the stored offset: in the current file, or first in the file it was rotated to while stopped.
+    private void resume() throws IOException {
+        IngestionOffset offset = transactionTemplate.execute(status ->
+                entityManager.find(IngestionOffset.class, logFile.toString()));
+        if (offset == null) {
+            position = 0;
+            return;
+        }
+        position = offset.getPosition();
+        String storedKey = offset.getFileKey();
+        if (storedKey == null || (Files.exists(logFile) && storedKey.equals(currentFileKey()))) {
+            return;
+        }
+        Path rotated = findFile(storedKey);
+        if (rotated == null) {
+            log.warn("The file {} was read up to offset {} is gone; following {} from its start",
+                    storedKey, position, logFile);
+            position = 0;
+            return;
+        }
+        log.info("Draining {} from offset {} before following {}", rotated, position, logFile);
+        channel = FileChannel.open(rotated, StandardOpenOption.READ);
+        fileKey = storedKey;
+    }
+
+    // Looks next to the log file, then in the archive directory LogFileMonitor rotates into.
+    private Path findFile(String key) throws IOException {
+        for (Path dir : List.of(logFile.getParent(), archiveDir)) {
+            if (!Files.isDirectory(dir)) {
+                continue;
+            }
+            try (DirectoryStream<Path> files = Files.newDirectoryStream(dir)) {
+                for (Path file : files) {
+                    if (Files.isRegularFile(file) && key.equals(fileKey(file))) {
+                        return file;
+                    }
+                }
+            }
+        }
+        return null;
+    }
+
+    private void saveOffset(long newPosition) {
+        transactionTemplate.executeWithoutResult(status -> storeOffset(newPosition));
+    }
+
+    private void storeOffset(long newPosition) {
+        IngestionOffset offset = new IngestionOffset();
+        offset.setName(logFile.toString());
+        offset.setPosition(newPosition);
+        offset.setFileKey(fileKey);
+        entityManager.merge(offset);
+    }
+
+    private void closeChannel() {
+        if (channel != null) {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                log.warn("Unable to close {}", logFile, e);
+            }
+            channel = null;
+        }
+    }
+}
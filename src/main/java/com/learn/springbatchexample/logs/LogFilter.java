@@ -0,0 +1,10 @@
+package com.learn.springbatchexample.logs;
+
+import java.time.LocalDateTime;
+
+/**
+ * Optional filters of the log listings; null values are not applied.
+ * {@code from} is inclusive, {@code to} exclusive.
+ */
+public record LogFilter(String level, String component, LocalDateTime from, LocalDateTime to) {
+}
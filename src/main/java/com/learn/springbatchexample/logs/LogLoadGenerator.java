@@ -0,0 +1,130 @@
+package com.learn.springbatchexample.logs;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Load-generator mode of LogFileGenerator: producer threads emit random log lines at a
+ * target rate (events/sec in total) into a {@link BatchingLogFileWriter}. The optional
+ * burst profile multiplies the rate for a few seconds at a fixed interval, to stress
+ * the ingestion pipeline on purpose.
+ */
+@Component
+@ConditionalOnProperty(name = "logs.generator.mode", havingValue = "load")
+public class LogLoadGenerator implements SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(LogLoadGenerator.class);
+
+    private final BatchingLogFileWriter writer;
+    private final double ratePerProducer;
+    private final int producers;
+    private final boolean burstEnabled;
+    private final double burstFactor;
+    private final long burstIntervalNanos;
+    private final long burstDurationNanos;
+
+    private final List<Thread> threads = new ArrayList<>();
+    private volatile boolean running;
+    private long startNanos;
+
+    public LogLoadGenerator(@Value("${logs.generator.rate:1000}") double rate,
+                            @Value("${logs.generator.producers:4}") int producers,
+                            @Value("${logs.generator.queue-capacity:100000}") int queueCapacity,
+                            @Value("${logs.generator.buffer-bytes:65536}") int bufferBytes,
+                            @Value("${logs.generator.burst.enabled:false}") boolean burstEnabled,
+                            @Value("${logs.generator.burst.factor:10}") double burstFactor,
+                            @Value("${logs.generator.burst.interval-ms:60000}") long burstIntervalMillis,
+                            @Value("${logs.generator.burst.duration-ms:5000}") long burstDurationMillis) {
+        this.writer = new BatchingLogFileWriter(LogFileGenerator.LOG_FILE_PATH, queueCapacity, bufferBytes);
+        this.ratePerProducer = rate / producers;
+        this.producers = producers;
+        this.burstEnabled = burstEnabled;
+        this.burstFactor = burstFactor;
+        this.burstIntervalNanos = burstIntervalMillis * 1_000_000;
+        this.burstDurationNanos = burstDurationMillis * 1_000_000;
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        startNanos = System.nanoTime();
+        writer.start();
+        for (int i = 0; i < producers; i++) {
+            Thread thread = new Thread(this::produce, "log-load-" + i);
+            thread.setDaemon(true);
+            threads.add(thread);
+            thread.start();
+        }
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        try {
+            for (Thread thread : threads) {
+                thread.join();
+            }
+            writer.stop();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        double seconds = (System.nanoTime() - startNanos) / 1e9;
+        log.info("Load generator wrote {} lines in {} s ({} lines/sec), dropped {}",
+                writer.getWritten(), String.format("%.1f", seconds),
+                String.format("%.1f", writer.getWritten() / seconds), writer.getDropped());
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    // Paces one producer against an absolute schedule, so the rate does not drift with the work per event.
+    private void produce() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long next = System.nanoTime();
+        long second = -1;
+        String timestamp = null;
+        StringBuilder line = new StringBuilder(128);
+        while (running) {
+            long now = System.nanoTime();
+            next += (long) (1e9 / currentRate(now));
+            if (next > now) {
+                LockSupport.parkNanos(next - now);
+            } else if (now - next > 1_000_000_000L) {
+                // More than a second behind: do not try to catch up with a burst of our own.
+                next = now;
+            }
+
+            long epochSecond = System.currentTimeMillis() / 1000;
+            if (epochSecond != second) {
+                second = epochSecond;
+                timestamp = LocalDateTime.now().format(LogFileGenerator.FORMATTER);
+            }
+            line.setLength(0);
+            line.append(timestamp).append(',')
+                    .append(LogFileGenerator.LEVELS[random.nextInt(LogFileGenerator.LEVELS.length)]).append(',')
+                    .append(LogFileGenerator.COMPONENTS[random.nextInt(LogFileGenerator.COMPONENTS.length)]).append(',')
+                    .append(LogFileGenerator.MESSAGES[random.nextInt(LogFileGenerator.MESSAGES.length)]).append('\n');
+            writer.offer(line.toString());
+        }
+    }
+
+    // Bursts take up the last burst-duration-ms of every burst-interval-ms.
+    private double currentRate(long now) {
+        if (burstEnabled && (now - startNanos) % burstIntervalNanos >= burstIntervalNanos - burstDurationNanos) {
+            return ratePerProducer * burstFactor;
+        }
+        return ratePerProducer;
+    }
+}
@@ -0,0 +1,212 @@
+package com.learn.springbatchexample.logs;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.jdbc.support.MetaDataAccessException;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.DatabaseMetaData;
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.StringJoiner;
+
+/**
+ * Date-partitioned storage for log_entry. On MySQL the table is RANGE COLUMNS
+ * partitioned on timestamp, one partition per day or month, plus a pmax catch-all:
+ * <ul>
+ *     <li>{@link #ensurePartitions()} partitions the table on first use and keeps
+ *     {@code ahead} periods ready past the current one, so pmax stays empty and is cheap
+ *     to split;</li>
+ *     <li>{@link #dropExpired(long)} drops the partitions whose whole range is older than
+ *     the retention, as a metadata operation instead of row DELETEs.</li>
+ * </ul>
+ * MySQL requires the partitioning column in every unique key, so the primary key becomes
+ * (id, timestamp). Queries with a timestamp bound only read the partitions they touch.
+ * <p>
+ * LogPartitionScheduler calls {@link #ensurePartitions()} at startup and on its own
+ * schedule whenever partitioning is enabled, with or without retention.
+ * <p>
+ * Other databases (H2) have no partitions: expired rows are removed there with a single
+ * DELETE on timestamp.
+ */
+@Component
+public class LogPartitionManager {
+
+    private static final Logger log = LoggerFactory.getLogger(LogPartitionManager.class);
+
+    private static final String MAX_PARTITION = "pmax";
+    private static final DateTimeFormatter BOUND_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd' 00:00:00'");
+
+    public enum Period {
+        DAY(DateTimeFormatter.ofPattern("'p'yyyyMMdd")),
+        MONTH(DateTimeFormatter.ofPattern("'p'yyyyMM"));
+
+        private final DateTimeFormatter nameFormat;
+
+        Period(DateTimeFormatter nameFormat) {
+            this.nameFormat = nameFormat;
+        }
+
+        LocalDate start(LocalDate date) {
+            return this == DAY ? date : date.withDayOfMonth(1);
+        }
+
+        LocalDate next(LocalDate start) {
+            return this == DAY ? start.plusDays(1) : start.plusMonths(1);
+        }
+
+        String partitionName(LocalDate start) {
+            return nameFormat.format(start);
+        }
+    }
+
+    // A partition and the exclusive upper bound of its range, null for pmax.
+    record Partition(String name, LocalDate upperBound) {
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final boolean partitioned;
+    private final Period period;
+    private final int periodsAhead;
+    private final int retentionDays;
+    private final Clock clock;
+
+    @Autowired
+    public LogPartitionManager(DataSource dataSource,
+                               @Value("${logs.partition.enabled:false}") boolean enabled,
+                               @Value("${logs.partition.period:DAY}") Period period,
+                               @Value("${logs.partition.ahead:3}") int periodsAhead,
+                               @Value("${logs.retention.days:90}") int retentionDays) throws MetaDataAccessException {
+        this(new JdbcTemplate(dataSource), enabled && "MySQL".equalsIgnoreCase(
+                        JdbcUtils.extractDatabaseMetaData(dataSource, DatabaseMetaData::getDatabaseProductName)),
+                period, periodsAhead, retentionDays, Clock.systemDefaultZone());
+    }
+
+    LogPartitionManager(JdbcTemplate jdbcTemplate, boolean partitioned, Period period, int periodsAhead,
+                        int retentionDays, Clock clock) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.partitioned = partitioned;
+        this.period = period;
+        this.periodsAhead = periodsAhead;
+        this.retentionDays = retentionDays;
+        this.clock = clock;
+    }
+
+    public boolean isPartitioned() {
+        return partitioned;
+    }
+
+    // Partitions log_entry if it is not yet, then adds the missing partitions up to the current period + ahead.
+    public void ensurePartitions() {
+        if (!partitioned) {
+            return;
+        }
+        LocalDate last = period.start(LocalDate.now(clock));
+        for (int i = 0; i < periodsAhead; i++) {
+            last = period.next(last);
+        }
+        List<Partition> partitions = partitions();
+        if (partitions.isEmpty()) {
+            partitionTable(last);
+            return;
+        }
+        // Bound of the last partition before pmax, i.e. the start of the first missing period.
+        LocalDate from = partitions.size() < 2 ? period.start(LocalDate.now(clock))
+                : partitions.get(partitions.size() - 2).upperBound();
+        if (from.isAfter(last)) {
+            return;
+        }
+        jdbcTemplate.execute("ALTER TABLE log_entry REORGANIZE PARTITION " + MAX_PARTITION
+                + " INTO (" + definitions(from, last) + ")");
+        log.info("Added log_entry partitions from {} to {}", from, last);
+    }
+
+    /**
+     * Removes the entries older than the retention. Partitions holding entries above
+     * aggregatedUpToId are kept, so nothing is dropped before it has been counted.
+     *
+     * @return the number of partitions dropped, or of rows deleted when the table is not partitioned
+     */
+    public int dropExpired(long aggregatedUpToId) {
+        LocalDate cutoff = LocalDate.now(clock).minusDays(retentionDays);
+        if (!partitioned) {
+            return jdbcTemplate.update("DELETE FROM log_entry WHERE timestamp < ? AND id <= ?",
+                    cutoff.atStartOfDay(), aggregatedUpToId);
+        }
+        StringJoiner expired = new StringJoiner(", ");
+        int count = 0;
+        for (Partition partition : partitions()) {
+            if (partition.upperBound() == null || partition.upperBound().isAfter(cutoff)) {
+                break;
+            }
+            Long maxId = jdbcTemplate.queryForObject(
+                    "SELECT MAX(id) FROM log_entry PARTITION (" + partition.name() + ")", Long.class);
+            if (maxId != null && maxId > aggregatedUpToId) {
+                log.warn("Keeping expired partition {}: it holds entries not aggregated yet", partition.name());
+                break;
+            }
+            expired.add(partition.name());
+            count++;
+        }
+        if (count > 0) {
+            jdbcTemplate.execute("ALTER TABLE log_entry DROP PARTITION " + expired);
+            log.info("Dropped log_entry partitions {}", expired);
+        }
+        return count;
+    }
+
+    // Current partitions in range order, pmax last; empty while the table is not partitioned.
+    List<Partition> partitions() {
+        List<Partition> partitions = new ArrayList<>();
+        jdbcTemplate.query("SELECT PARTITION_NAME, PARTITION_DESCRIPTION FROM information_schema.PARTITIONS " +
+                "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'log_entry' AND PARTITION_NAME IS NOT NULL " +
+                "ORDER BY PARTITION_ORDINAL_POSITION", rs -> {
+            partitions.add(new Partition(rs.getString(1), upperBound(rs.getString(2))));
+        });
+        return partitions;
+    }
+
+    // RANGE COLUMNS bounds read like '2025-06-24 00:00:00'; null for MAXVALUE.
+    static LocalDate upperBound(String description) {
+        return "MAXVALUE".equals(description) ? null : LocalDate.parse(description.replace("'", "").substring(0, 10));
+    }
+
+    // Starts with the period of the oldest entry still within the retention; older entries share its partition.
+    private void partitionTable(LocalDate last) {
+        LocalDate oldest = jdbcTemplate.queryForObject("SELECT CAST(MIN(timestamp) AS DATE) FROM log_entry",
+                LocalDate.class);
+        LocalDate cutoff = LocalDate.now(clock).minusDays(retentionDays);
+        LocalDate first = oldest == null ? LocalDate.now(clock) : oldest;
+        if (first.isBefore(cutoff)) {
+            first = cutoff;
+        }
+        first = period.start(first);
+        String columnType = jdbcTemplate.queryForObject("SELECT COLUMN_TYPE FROM information_schema.COLUMNS " +
+                "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'log_entry' AND COLUMN_NAME = 'timestamp'",
+                String.class);
+        jdbcTemplate.execute("ALTER TABLE log_entry MODIFY timestamp " + columnType + " NOT NULL, " +
+                "DROP PRIMARY KEY, ADD PRIMARY KEY (id, timestamp)");
+        jdbcTemplate.execute("ALTER TABLE log_entry PARTITION BY RANGE COLUMNS(timestamp) ("
+                + definitions(first, last) + ")");
+        log.info("Partitioned log_entry by {} from {} to {}", period, first, last);
+    }
+
+    // Partitions for the periods starting at from through last, followed by pmax.
+    String definitions(LocalDate from, LocalDate last) {
+        StringJoiner definitions = new StringJoiner(", ");
+        for (LocalDate start = from; !start.isAfter(last); start = period.next(start)) {
+            definitions.add("PARTITION " + period.partitionName(start)
+                    + " VALUES LESS THAN ('" + BOUND_FORMAT.format(period.next(start)) + "')");
+        }
+        definitions.add("PARTITION " + MAX_PARTITION + " VALUES LESS THAN (MAXVALUE)");
+        return definitions.toString();
+    }
+}
@@ -0,0 +1,41 @@
+package com.learn.springbatchexample.logs;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Keeps the log_entry partitions ahead of the clock whenever partitioning is enabled:
+ * once at startup, so entries written before the first retention run land in their own
+ * partition instead of pmax, and then on the logs.partition.cron schedule.
+ */
+@Component
+@ConditionalOnProperty(name = "logs.partition.enabled", havingValue = "true")
+public class LogPartitionScheduler implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(LogPartitionScheduler.class);
+
+    private final LogPartitionManager logPartitionManager;
+
+    public LogPartitionScheduler(LogPartitionManager logPartitionManager) {
+        this.logPartitionManager = logPartitionManager;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        ensurePartitions();
+    }
+
+    @Scheduled(cron = "${logs.partition.cron:0 0 1 * * *}")
+    public void ensurePartitions() {
+        try {
+            logPartitionManager.ensurePartitions();
+        } catch (Exception e) {
+            log.error("Unable to add the log_entry partitions", e);
+        }
+    }
+}
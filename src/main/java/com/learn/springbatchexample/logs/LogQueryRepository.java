@@ -0,0 +1,129 @@
+package com.learn.springbatchexample.logs;
+
+import com.learn.springbatchexample.support.StreamingJdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.support.MetaDataAccessException;
+import org.springframework.stereotype.Repository;
+
+import javax.sql.DataSource;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Filtered, keyset-paginated reads of log_entry and log_summary ({@code id > afterId
+ * ORDER BY id LIMIT n}), plus a forward-only cursor over log_entry for exports that must
+ * not hold the result in memory. Level and component are filtered and read as their
+ * LogDictionary codes.
+ */
+@Repository
+public class LogQueryRepository {
+
+    private static final String LOG_COLUMNS =
+            "SELECT id, timestamp, level_code, component_code, message FROM log_entry";
+
+    // Code that no dictionary entry has, for filters on values never seen.
+    private static final short NO_CODE = -1;
+
+    private static final RowMapper<LogSummary> LOG_SUMMARY_MAPPER = (rs, rowNum) -> {
+        LogSummary summary = new LogSummary();
+        summary.setId(rs.getLong("id"));
+        summary.setLevel(rs.getString("level"));
+        summary.setLogDate(rs.getDate("log_date").toLocalDate());
+        summary.setCount(rs.getLong("count"));
+        return summary;
+    };
+
+    private final LogDictionary logDictionary;
+    private final RowMapper<LogEntry> logEntryMapper;
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate streamingJdbcTemplate;
+
+    public LogQueryRepository(DataSource dataSource, LogDictionary logDictionary) throws MetaDataAccessException {
+        this.logDictionary = logDictionary;
+        // Decoded values are the dictionary's canonical instances, shared by all rows.
+        this.logEntryMapper = (rs, rowNum) -> {
+            LogEntry entry = new LogEntry();
+            entry.setId(rs.getLong("id"));
+            entry.setTimestamp(rs.getTimestamp("timestamp").toLocalDateTime());
+            entry.setLevelCode(code(rs.getShort("level_code"), rs.wasNull()));
+            entry.setLevel(logDictionary.decode(entry.getLevelCode()));
+            entry.setComponentCode(code(rs.getShort("component_code"), rs.wasNull()));
+            entry.setComponent(logDictionary.decode(entry.getComponentCode()));
+            entry.setMessage(logDictionary.canonicalMessage(rs.getString("message")));
+            return entry;
+        };
+        this.jdbcTemplate = new NamedParameterJdbcTemplate(dataSource);
+        this.streamingJdbcTemplate = new NamedParameterJdbcTemplate(new StreamingJdbcTemplate(dataSource));
+    }
+
+    public KeysetPage<LogEntry> findLogs(LogFilter filter, long afterId, int limit) {
+        MapSqlParameterSource params = new MapSqlParameterSource("afterId", afterId).addValue("limit", limit);
+        String sql = LOG_COLUMNS + " WHERE id > :afterId" + where(filter, params) + " ORDER BY id LIMIT :limit";
+        List<LogEntry> entries = jdbcTemplate.query(sql, params, logEntryMapper);
+        Long next = entries.size() < limit ? null : entries.get(entries.size() - 1).getId();
+        return new KeysetPage<>(entries, next);
+    }
+
+    // Hands every matching entry to the consumer in id order, one row at a time, without collecting them.
+    public void streamLogs(LogFilter filter, Consumer<LogEntry> consumer) {
+        MapSqlParameterSource params = new MapSqlParameterSource();
+        String sql = LOG_COLUMNS + " WHERE 1 = 1" + where(filter, params) + " ORDER BY id";
+        streamingJdbcTemplate.query(sql, params, rs -> {
+            consumer.accept(logEntryMapper.mapRow(rs, 0));
+        });
+    }
+
+    public KeysetPage<LogSummary> findSummaries(String level, LocalDate from, LocalDate to, long afterId, int limit) {
+        MapSqlParameterSource params = new MapSqlParameterSource("afterId", afterId).addValue("limit", limit);
+        StringBuilder sql = new StringBuilder("SELECT id, level, log_date, count FROM log_summary WHERE id > :afterId");
+        if (level != null) {
+            sql.append(" AND level = :level");
+            params.addValue("level", level);
+        }
+        if (from != null) {
+            sql.append(" AND log_date >= :from");
+            params.addValue("from", from);
+        }
+        if (to != null) {
+            sql.append(" AND log_date < :to");
+            params.addValue("to", to);
+        }
+        sql.append(" ORDER BY id LIMIT :limit");
+        List<LogSummary> summaries = jdbcTemplate.query(sql.toString(), params, LOG_SUMMARY_MAPPER);
+        Long next = summaries.size() < limit ? null : summaries.get(summaries.size() - 1).getId();
+        return new KeysetPage<>(summaries, next);
+    }
+
+    private String where(LogFilter filter, MapSqlParameterSource params) {
+        StringBuilder where = new StringBuilder();
+        if (filter.level() != null) {
+            where.append(" AND level_code = :level");
+            params.addValue("level", find(LogDictionary.Kind.LEVEL, filter.level()));
+        }
+        if (filter.component() != null) {
+            where.append(" AND component_code = :component");
+            params.addValue("component", find(LogDictionary.Kind.COMPONENT, filter.component()));
+        }
+        if (filter.from() != null) {
+            where.append(" AND timestamp >= :from");
+            params.addValue("from", filter.from());
+        }
+        if (filter.to() != null) {
+            where.append(" AND timestamp < :to");
+            params.addValue("to", filter.to());
+        }
+        return where.toString();
+    }
+
+    private short find(LogDictionary.Kind kind, String value) {
+        Short code = logDictionary.find(kind, value);
+        return code == null ? NO_CODE : code;
+    }
+
+    private static Short code(short value, boolean wasNull) {
+        return wasNull ? null : value;
+    }
+}
@@ -0,0 +1,43 @@
+package com.learn.springbatchexample.logs;
+
+import com.learn.springbatchexample.jobs.JobLaunchService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.batch.core.Job;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobParametersBuilder;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+
+/**
+ * Launches logRetentionJob on the logs.retention.cron schedule, once per run date.
+ */
+@Component
+@ConditionalOnProperty(name = "logs.retention.enabled", havingValue = "true")
+public class LogRetentionScheduler {
+
+    private static final Logger log = LoggerFactory.getLogger(LogRetentionScheduler.class);
+
+    private final JobLaunchService jobLaunchService;
+    private final Job logRetentionJob;
+
+    public LogRetentionScheduler(JobLaunchService jobLaunchService, Job logRetentionJob) {
+        this.jobLaunchService = jobLaunchService;
+        this.logRetentionJob = logRetentionJob;
+    }
+
+    @Scheduled(cron = "${logs.retention.cron:0 30 1 * * *}")
+    public void launchRetentionJob() {
+        try {
+            JobExecution execution = jobLaunchService.launch(logRetentionJob, new JobParametersBuilder()
+                    .addLocalDate("runDate", LocalDate.now())
+                    .toJobParameters());
+            log.info("Log retention job launched, execution id {}", execution.getId());
+        } catch (Exception e) {
+            log.error("Unable to launch the log retention job", e);
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package com.learn.springbatchexample.logs;
+
+import org.jetbrains.annotations.NotNull;
+import org.springframework.batch.core.StepContribution;
+import org.springframework.batch.core.scope.context.ChunkContext;
+import org.springframework.batch.core.step.tasklet.Tasklet;
+import org.springframework.batch.repeat.RepeatStatus;
+import org.springframework.stereotype.Component;
+
+/**
+ * Partition maintenance for log_entry: creates the partitions of the coming periods and
+ * drops the expired ones (see LogPartitionManager). The write count is the number of
+ * partitions dropped, or of rows deleted on an unpartitioned table.
+ * <p>
+ * On MySQL partition DDL commits implicitly; each statement is complete on its own and
+ * the next run starts again from information_schema, so a failed run can simply be rerun.
+ */
+@Component
+public class LogRetentionTasklet implements Tasklet {
+
+    private final LogPartitionManager logPartitionManager;
+    private final LogSummaryWriter logSummaryWriter;
+
+    public LogRetentionTasklet(LogPartitionManager logPartitionManager, LogSummaryWriter logSummaryWriter) {
+        this.logPartitionManager = logPartitionManager;
+        this.logSummaryWriter = logSummaryWriter;
+    }
+
+    @Override
+    public RepeatStatus execute(@NotNull StepContribution contribution, @NotNull ChunkContext chunkContext) {
+        logPartitionManager.ensurePartitions();
+        contribution.incrementWriteCount(logPartitionManager.dropExpired(logSummaryWriter.aggregatedUpToId()));
+        return RepeatStatus.FINISHED;
+    }
+}
@@ -9,7 +9,9 @@ import java.time.LocalDate;
  */
 
 @Entity
-@Table(name = "log_summary")
+// One row per (level, logDate); the aggregation upserts into it
+@Table(name = "log_summary",
+        uniqueConstraints = @UniqueConstraint(name = "uk_log_summary_level_date", columnNames = {"level", "log_date"}))
 public class LogSummary {
 
     @Id
@@ -21,7 +23,7 @@ public class LogSummary {
     // Grouped by date (extracted from the log entry’s timestamp)
     private LocalDate logDate;
 
-    private Integer count;
+    private Long count;
 
     // Getters and setters
     public Long getId() {
@@ -42,10 +44,10 @@ public class LogSummary {
     public void setLogDate(LocalDate logDate) {
         this.logDate = logDate;
     }
-    public Integer getCount() {
+    public Long getCount() {
         return count;
     }
-    public void setCount(Integer count) {
+    public void setCount(Long count) {
         this.count = count;
     }
 
@@ -0,0 +1,89 @@
+package com.learn.springbatchexample.logs;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Read-through cache of log summary pages, bounded in size and age. LogSummaryWriter
+ * evicts, after its transaction commits, exactly the cached pages whose filter covers
+ * a (level, date) it changed, so a page is never served stale once an aggregation
+ * has committed. Its statistics are bound to the MeterRegistry as the cache named
+ * "logSummary" (cache_gets_total, cache_evictions_total, ... on /actuator/prometheus).
+ */
+@Component
+public class LogSummaryCache {
+
+    // One cached query; from is inclusive, to exclusive, null means unbounded.
+    record Query(String level, LocalDate from, LocalDate to, long afterId, int limit) {
+
+        boolean covers(SummaryKey key) {
+            return (level == null || level.equals(key.level()))
+                    && (from == null || !key.logDate().isBefore(from))
+                    && (to == null || key.logDate().isBefore(to));
+        }
+    }
+
+    public record SummaryKey(String level, LocalDate logDate) {
+    }
+
+    private final LogQueryRepository logQueryRepository;
+    private final Cache<Query, KeysetPage<LogSummary>> cache;
+    // Bumped by every invalidation, so a page loaded before it is not cached after it.
+    private final AtomicLong generation = new AtomicLong();
+
+    public LogSummaryCache(LogQueryRepository logQueryRepository, MeterRegistry meterRegistry,
+                           @Value("${logs.summary-cache.max-entries:10000}") long maxEntries,
+                           @Value("${logs.summary-cache.ttl-seconds:60}") long ttlSeconds) {
+        this.logQueryRepository = logQueryRepository;
+        this.cache = CaffeineCacheMetrics.monitor(meterRegistry, Caffeine.newBuilder()
+                .maximumSize(maxEntries)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .<Query, KeysetPage<LogSummary>>build(), "logSummary");
+    }
+
+    public KeysetPage<LogSummary> findSummaries(String level, LocalDate from, LocalDate to, long afterId, int limit) {
+        Query query = new Query(level, from, to, afterId, limit);
+        KeysetPage<LogSummary> page = cache.getIfPresent(query);
+        if (page != null) {
+            return page;
+        }
+        long loadedAt = generation.get();
+        KeysetPage<LogSummary> loaded = logQueryRepository.findSummaries(level, from, to, afterId, limit);
+        // Only kept if no invalidation ran meanwhile; the page may already be out of date otherwise.
+        cache.asMap().compute(query, (q, current) -> generation.get() == loadedAt ? loaded : current);
+        return loaded;
+    }
+
+    public void invalidate(Collection<SummaryKey> keys) {
+        if (keys.isEmpty()) {
+            return;
+        }
+        generation.incrementAndGet();
+        cache.asMap().keySet().removeIf(query -> keys.stream().anyMatch(query::covers));
+    }
+
+    // After log_summary has been rebuilt as a whole.
+    public void invalidateAll() {
+        generation.incrementAndGet();
+        cache.invalidateAll();
+    }
+
+    public CacheStats stats() {
+        return cache.stats();
+    }
+
+    public long size() {
+        return cache.estimatedSize();
+    }
+}
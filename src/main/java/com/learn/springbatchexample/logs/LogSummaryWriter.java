@@ -0,0 +1,165 @@
+package com.learn.springbatchexample.logs;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.PersistenceContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Upserts counts into log_summary and keeps the aggregation high-watermark, for the
+ * aggregation tasklet and the streaming aggregation of the import step alike.
+ * Callers run inside the step's transaction, so counts and watermark commit together.
+ * The (level, date) keys changed by a transaction are evicted from the LogSummaryCache
+ * once it has committed.
+ * <p>
+ * The watermark row is created on first use. log_summary may already hold counts then,
+ * from the full re-aggregation of earlier versions (with duplicate (level, date) rows
+ * the unique key could not be created over), so it is rebuilt in the same transaction:
+ * emptied and counted again from every log_entry up to MAX(id). The next schema update
+ * can then add uk_log_summary_level_date.
+ */
+@Component
+@Transactional
+public class LogSummaryWriter {
+
+    private static final Logger log = LoggerFactory.getLogger(LogSummaryWriter.class);
+
+    private static final String WATERMARK_NAME = "log_entry";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final LogSummaryCache logSummaryCache;
+    private final LogDictionary logDictionary;
+
+    public LogSummaryWriter(LogSummaryCache logSummaryCache, LogDictionary logDictionary) {
+        this.logSummaryCache = logSummaryCache;
+        this.logDictionary = logDictionary;
+    }
+
+    // Reads the watermark and locks it, so two aggregations cannot count the same range.
+    public AggregationWatermark lockWatermark() {
+        AggregationWatermark watermark = entityManager.find(AggregationWatermark.class, WATERMARK_NAME,
+                LockModeType.PESSIMISTIC_WRITE);
+        if (watermark == null) {
+            watermark = new AggregationWatermark();
+            watermark.setName(WATERMARK_NAME);
+            watermark.setLastId(0L);
+            entityManager.persist(watermark);
+            rebuild(watermark);
+        }
+        return watermark;
+    }
+
+    /**
+     * Counts the log entries with afterId &lt; id &lt;= upToId into log_summary, grouped by
+     * level code and date; the level is decoded once per group.
+     *
+     * @return the number of (level, date) rows changed
+     */
+    public int addCounts(long afterId, long upToId) {
+        // The id range is a primary key range scan; on a date-partitioned log_entry that is one index dive in
+        // every partition, and the rows read are only the new ones. (A timestamp bound taken from the previous
+        // watermark would not be a lower bound: imported files can carry entries older than those stored.)
+        @SuppressWarnings("unchecked")
+        List<Object[]> results = entityManager.createNativeQuery(
+                        "SELECT level_code, CAST(timestamp AS DATE) as log_date, COUNT(*) as cnt " +
+                        "FROM log_entry WHERE id > ?1 AND id <= ?2 " +
+                        "GROUP BY level_code, CAST(timestamp AS DATE)")
+                .setParameter(1, afterId)
+                .setParameter(2, upToId)
+                .getResultList();
+        results.forEach(row -> {
+            String level = row[0] == null ? null : logDictionary.decode(((Number) row[0]).shortValue());
+            // row[1] is a java.sql.Date which we convert to LocalDate.
+            LocalDate logDate = ((java.sql.Date) row[1]).toLocalDate();
+            addCount(level, logDate, ((Number) row[2]).longValue());
+        });
+        return results.size();
+    }
+
+    // Highest log_entry id already counted, read without locking; it only ever grows.
+    public long aggregatedUpToId() {
+        AggregationWatermark watermark = entityManager.find(AggregationWatermark.class, WATERMARK_NAME);
+        return watermark == null ? 0L : watermark.getLastId();
+    }
+
+    // Highest log_entry id written so far, or 0 for an empty table.
+    public long maxLogEntryId() {
+        Number maxId = (Number) entityManager.createNativeQuery("SELECT MAX(id) FROM log_entry").getSingleResult();
+        return maxId == null ? 0L : maxId.longValue();
+    }
+
+    // Adds to the existing summary row, or creates it for a new (level, logDate). Entries without a level
+    // share one row with a null level, which "= :level" would never match.
+    public void addCount(String level, LocalDate logDate, long count) {
+        int updated = (level == null
+                ? entityManager.createQuery("UPDATE LogSummary s SET s.count = s.count + :count " +
+                        "WHERE s.level IS NULL AND s.logDate = :logDate")
+                : entityManager.createQuery("UPDATE LogSummary s SET s.count = s.count + :count " +
+                        "WHERE s.level = :level AND s.logDate = :logDate")
+                        .setParameter("level", level))
+                .setParameter("count", count)
+                .setParameter("logDate", logDate)
+                .executeUpdate();
+        if (updated == 0) {
+            LogSummary summary = new LogSummary();
+            summary.setLevel(level);
+            summary.setLogDate(logDate);
+            summary.setCount(count);
+
+            // Persist the aggregated summary record.
+            entityManager.persist(summary);
+        }
+        touchedKeys().add(new LogSummaryCache.SummaryKey(level, logDate));
+    }
+
+    // Replaces whatever log_summary holds, duplicates included, with the counts of all entries so far.
+    private void rebuild(AggregationWatermark watermark) {
+        int deleted = entityManager.createQuery("DELETE FROM LogSummary").executeUpdate();
+        long maxId = maxLogEntryId();
+        int rows = addCounts(0L, maxId);
+        watermark.setLastId(maxId);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                logSummaryCache.invalidateAll();
+            }
+        });
+        log.info("Rebuilt log_summary up to log_entry id {}: {} rows replaced by {}", maxId, deleted, rows);
+    }
+
+    // Keys changed by the current transaction, evicted from the cache after it commits.
+    @SuppressWarnings("unchecked")
+    private Set<LogSummaryCache.SummaryKey> touchedKeys() {
+        Set<LogSummaryCache.SummaryKey> keys =
+                (Set<LogSummaryCache.SummaryKey>) TransactionSynchronizationManager.getResource(this);
+        if (keys != null) {
+            return keys;
+        }
+        Set<LogSummaryCache.SummaryKey> newKeys = new HashSet<>();
+        TransactionSynchronizationManager.bindResource(this, newKeys);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                logSummaryCache.invalidate(newKeys);
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(LogSummaryWriter.this);
+            }
+        });
+        return newKeys;
+    }
+}
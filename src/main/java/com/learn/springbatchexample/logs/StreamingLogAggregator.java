@@ -0,0 +1,145 @@
+package com.learn.springbatchexample.logs;
+
+import org.jetbrains.annotations.NotNull;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.batch.core.ChunkListener;
+import org.springframework.batch.core.ExitStatus;
+import org.springframework.batch.core.ItemWriteListener;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.StepExecutionListener;
+import org.springframework.batch.core.scope.context.ChunkContext;
+import org.springframework.batch.item.Chunk;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemStream;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts log entries per (level, date) while importLogEntriesStep writes them, so the
+ * separate aggregation scan of log_entry is not needed.
+ * <ul>
+ *     <li>{@link Mode#CHUNK}: every chunk's counts are upserted in the chunk's own transaction.</li>
+ *     <li>{@link Mode#STEP}: counts are kept in memory, saved with the step ExecutionContext
+ *     at every commit so a restart picks them up, and upserted once the step completes.</li>
+ * </ul>
+ * Either way the counts are only added, and the aggregation watermark moved, when the ids
+ * above the watermark are exactly the entries counted here: log_entry ids are assigned
+ * consecutively, so max(id) - watermark must equal the count. Anything else in that range
+ * (rows of the log tailer or of a concurrent import, committed or not, or a gap left by a
+ * rollback) turns streaming off for the rest of the step; aggregateLogDataStep, which
+ * follows the import, then counts the entries from the watermark on.
+ */
+public class StreamingLogAggregator implements ItemWriteListener<LogEntry>, ChunkListener, ItemStream,
+        StepExecutionListener {
+
+    public enum Mode {CHUNK, STEP}
+
+    private static final Logger log = LoggerFactory.getLogger(StreamingLogAggregator.class);
+
+    private static final String COUNTS_KEY = "streamingLogAggregator.counts";
+
+    private final Mode mode;
+    private final LogSummaryWriter logSummaryWriter;
+    private final TransactionTemplate transactionTemplate;
+
+    // Counts of committed chunks, keyed by "level|yyyy-MM-dd".
+    private final Map<String, LongAdder> counts = new ConcurrentHashMap<>();
+    // Counts of the chunk in flight on the current thread, merged once it has committed.
+    private final ThreadLocal<Map<String, Long>> pending = ThreadLocal.withInitial(HashMap::new);
+    // Set once entries written by someone else were found above the watermark.
+    private volatile boolean bypassed;
+
+    public StreamingLogAggregator(Mode mode, LogSummaryWriter logSummaryWriter,
+                                  PlatformTransactionManager transactionManager) {
+        this.mode = mode;
+        this.logSummaryWriter = logSummaryWriter;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @Override
+    public void afterWrite(@NotNull Chunk<? extends LogEntry> items) {
+        Map<String, Long> chunkCounts = pending.get();
+        chunkCounts.clear();
+        for (LogEntry entry : items) {
+            chunkCounts.merge(key(entry.getLevel(), entry.getTimestamp().toLocalDate()), 1L, Long::sum);
+        }
+        if (mode == Mode.CHUNK && !bypassed) {
+            // Still inside the chunk transaction: the counts commit or roll back with the entries.
+            flush(chunkCounts);
+            chunkCounts.clear();
+        }
+    }
+
+    @Override
+    public void afterChunk(@NotNull ChunkContext context) {
+        Map<String, Long> chunkCounts = pending.get();
+        chunkCounts.forEach((key, count) -> counts.computeIfAbsent(key, k -> new LongAdder()).add(count));
+        chunkCounts.clear();
+    }
+
+    @Override
+    public void afterChunkError(@NotNull ChunkContext context) {
+        pending.get().clear();
+    }
+
+    @Override
+    public void open(@NotNull ExecutionContext executionContext) {
+        counts.clear();
+        bypassed = false;
+        if (mode == Mode.STEP && executionContext.containsKey(COUNTS_KEY)) {
+            @SuppressWarnings("unchecked")
+            Map<String, Long> saved = (Map<String, Long>) executionContext.get(COUNTS_KEY);
+            saved.forEach((key, count) -> counts.computeIfAbsent(key, k -> new LongAdder()).add(count));
+        }
+    }
+
+    @Override
+    public void update(@NotNull ExecutionContext executionContext) {
+        if (mode == Mode.STEP) {
+            // Runs inside the chunk transaction, so the chunk in flight is included.
+            HashMap<String, Long> snapshot = new HashMap<>();
+            counts.forEach((key, count) -> snapshot.put(key, count.sum()));
+            pending.get().forEach((key, count) -> snapshot.merge(key, count, Long::sum));
+            executionContext.put(COUNTS_KEY, snapshot);
+        }
+    }
+
+    @Override
+    public ExitStatus afterStep(@NotNull StepExecution stepExecution) {
+        if (mode == Mode.STEP && !bypassed && !stepExecution.getStatus().isUnsuccessful()) {
+            Map<String, Long> totals = new HashMap<>();
+            counts.forEach((key, count) -> totals.put(key, count.sum()));
+            transactionTemplate.executeWithoutResult(status -> flush(totals));
+            counts.clear();
+        }
+        return stepExecution.getExitStatus();
+    }
+
+    private void flush(Map<String, Long> countsByKey) {
+        long total = countsByKey.values().stream().mapToLong(Long::longValue).sum();
+        AggregationWatermark watermark = logSummaryWriter.lockWatermark();
+        long maxId = logSummaryWriter.maxLogEntryId();
+        if (maxId - watermark.getLastId() != total) {
+            log.info("log_entry ids {} to {} are not only the {} entries counted here; leaving them to "
+                    + "aggregateLogDataStep", watermark.getLastId() + 1, maxId, total);
+            bypassed = true;
+            return;
+        }
+        countsByKey.forEach((key, count) -> {
+            int separator = key.indexOf('|');
+            logSummaryWriter.addCount(key.substring(0, separator), LocalDate.parse(key.substring(separator + 1)), count);
+        });
+        watermark.setLastId(maxId);
+    }
+
+    private static String key(String level, LocalDate logDate) {
+        return level + "|" + logDate;
+    }
+}
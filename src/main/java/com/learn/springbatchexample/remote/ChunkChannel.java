@@ -0,0 +1,45 @@
+package com.learn.springbatchexample.remote;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Transport between a manager step and its workers. The manager sends chunk
+ * descriptors and collects the replies; workers claim descriptors one at a time and
+ * complete or fail them.
+ * <p>
+ * {@link #send}, {@link #collected} and {@link #complete} take part in the caller's
+ * transaction, so a manager's sends commit with its step context and a worker's reply
+ * commits with the items it wrote.
+ */
+public interface ChunkChannel {
+
+    // Manager side.
+
+    void send(String stepKey, long firstId, long lastId, int itemCount);
+
+    // Requests of the step that are not collected yet, whatever their state.
+    int outstanding(String stepKey);
+
+    // DONE and FAILED requests of the step, not collected yet.
+    List<ChunkRequest> replies(String stepKey);
+
+    void collected(List<ChunkRequest> replies);
+
+    // Puts requests claimed longer than the lease ago back to NEW; their worker is presumed dead.
+    int requeueExpired(String stepKey, Duration lease);
+
+    // Puts the FAILED requests of the step back to NEW with their attempts reset, for a restart.
+    int retryFailed(String stepKey);
+
+    // Worker side.
+
+    // Claims the oldest NEW request, or returns null when there is none.
+    ChunkRequest claim(String worker);
+
+    // Records the reply; fails if the request is no longer claimed by this worker.
+    void complete(ChunkRequest request, long readCount, long writeCount, long filterCount);
+
+    // Releases the request after an error: back to NEW, or FAILED once maxAttempts is reached.
+    void fail(ChunkRequest request, String error, int maxAttempts);
+}
@@ -0,0 +1,152 @@
+package com.learn.springbatchexample.remote;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * One chunk handed from a manager step to the workers: the id range [firstId, lastId]
+ * of the items to process, and, once a worker is done, its counts. The row goes
+ * NEW, CLAIMED (by a worker), then DONE or FAILED, and COLLECTED once the manager has
+ * added the counts to its StepExecution.
+ */
+
+@Entity
+@Table(name = "chunk_request", indexes = {
+        @Index(name = "idx_chunk_request_status_id", columnList = "status, id"),
+        @Index(name = "idx_chunk_request_step_key_status", columnList = "step_key, status")})
+public class ChunkRequest {
+
+    public static final String NEW = "NEW";
+    public static final String CLAIMED = "CLAIMED";
+    public static final String DONE = "DONE";
+    public static final String FAILED = "FAILED";
+    public static final String COLLECTED = "COLLECTED";
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    // Identifies the manager step across restarts: "<job instance id>:<step name>".
+    @Column(name = "step_key", nullable = false, length = 128)
+    private String stepKey;
+
+    private Long firstId;
+    private Long lastId;
+    private Integer itemCount;
+
+    @Column(nullable = false, length = 16)
+    private String status;
+
+    @Column(length = 128)
+    private String worker;
+    private Integer attempts;
+    private LocalDateTime claimedAt;
+    private LocalDateTime completedAt;
+
+    private Long readCount;
+    private Long writeCount;
+    private Long filterCount;
+
+    @Column(length = 1024)
+    private String error;
+
+    // Getters and setters
+    public Long getId() {
+        return id;
+    }
+    public void setId(Long id) {
+        this.id = id;
+    }
+    public String getStepKey() {
+        return stepKey;
+    }
+    public void setStepKey(String stepKey) {
+        this.stepKey = stepKey;
+    }
+    public Long getFirstId() {
+        return firstId;
+    }
+    public void setFirstId(Long firstId) {
+        this.firstId = firstId;
+    }
+    public Long getLastId() {
+        return lastId;
+    }
+    public void setLastId(Long lastId) {
+        this.lastId = lastId;
+    }
+    public Integer getItemCount() {
+        return itemCount;
+    }
+    public void setItemCount(Integer itemCount) {
+        this.itemCount = itemCount;
+    }
+    public String getStatus() {
+        return status;
+    }
+    public void setStatus(String status) {
+        this.status = status;
+    }
+    public String getWorker() {
+        return worker;
+    }
+    public void setWorker(String worker) {
+        this.worker = worker;
+    }
+    public Integer getAttempts() {
+        return attempts;
+    }
+    public void setAttempts(Integer attempts) {
+        this.attempts = attempts;
+    }
+    public LocalDateTime getClaimedAt() {
+        return claimedAt;
+    }
+    public void setClaimedAt(LocalDateTime claimedAt) {
+        this.claimedAt = claimedAt;
+    }
+    public LocalDateTime getCompletedAt() {
+        return completedAt;
+    }
+    public void setCompletedAt(LocalDateTime completedAt) {
+        this.completedAt = completedAt;
+    }
+    public Long getReadCount() {
+        return readCount;
+    }
+    public void setReadCount(Long readCount) {
+        this.readCount = readCount;
+    }
+    public Long getWriteCount() {
+        return writeCount;
+    }
+    public void setWriteCount(Long writeCount) {
+        this.writeCount = writeCount;
+    }
+    public Long getFilterCount() {
+        return filterCount;
+    }
+    public void setFilterCount(Long filterCount) {
+        this.filterCount = filterCount;
+    }
+    public String getError() {
+        return error;
+    }
+    public void setError(String error) {
+        this.error = error;
+    }
+
+    @Override
+    public String toString() {
+        return "ChunkRequest{" +
+                "id=" + id +
+                ", stepKey='" + stepKey + '\'' +
+                ", firstId=" + firstId +
+                ", lastId=" + lastId +
+                ", status='" + status + '\'' +
+                ", worker='" + worker + '\'' +
+                ", attempts=" + attempts +
+                '}';
+    }
+}
@@ -0,0 +1,139 @@
+package com.learn.springbatchexample.remote;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import javax.sql.DataSource;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * ChunkChannel over the chunk_request table, so that a manager and its workers only
+ * need to share the database: workers may be threads of the manager's process or
+ * other instances of the application.
+ * <p>
+ * A request is claimed with a conditional UPDATE (status = 'NEW'), so of two workers
+ * racing for it exactly one wins. The reply is a conditional UPDATE as well
+ * (status = 'CLAIMED' and still this worker), which makes a worker whose lease ran out
+ * roll back instead of writing a chunk that was handed to another worker.
+ */
+@Repository
+public class JdbcChunkChannel implements ChunkChannel {
+
+    // Oldest NEW requests first; a few candidates, as concurrent workers race for the first one.
+    private static final int CLAIM_CANDIDATES = 8;
+
+    private static final String COLUMNS = "SELECT id, step_key, first_id, last_id, item_count, status, worker, " +
+            "attempts, claimed_at, completed_at, read_count, write_count, filter_count, error FROM chunk_request";
+
+    private static final RowMapper<ChunkRequest> CHUNK_REQUEST_MAPPER = (rs, rowNum) -> {
+        ChunkRequest request = new ChunkRequest();
+        request.setId(rs.getLong("id"));
+        request.setStepKey(rs.getString("step_key"));
+        request.setFirstId(rs.getLong("first_id"));
+        request.setLastId(rs.getLong("last_id"));
+        request.setItemCount(rs.getInt("item_count"));
+        request.setStatus(rs.getString("status"));
+        request.setWorker(rs.getString("worker"));
+        request.setAttempts(rs.getInt("attempts"));
+        Timestamp claimedAt = rs.getTimestamp("claimed_at");
+        request.setClaimedAt(claimedAt == null ? null : claimedAt.toLocalDateTime());
+        Timestamp completedAt = rs.getTimestamp("completed_at");
+        request.setCompletedAt(completedAt == null ? null : completedAt.toLocalDateTime());
+        request.setReadCount(rs.getLong("read_count"));
+        request.setWriteCount(rs.getLong("write_count"));
+        request.setFilterCount(rs.getLong("filter_count"));
+        request.setError(rs.getString("error"));
+        return request;
+    };
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public JdbcChunkChannel(DataSource dataSource) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    @Override
+    public void send(String stepKey, long firstId, long lastId, int itemCount) {
+        jdbcTemplate.update("INSERT INTO chunk_request (step_key, first_id, last_id, item_count, status, attempts, " +
+                        "read_count, write_count, filter_count) VALUES (?, ?, ?, ?, ?, 0, 0, 0, 0)",
+                stepKey, firstId, lastId, itemCount, ChunkRequest.NEW);
+    }
+
+    @Override
+    public int outstanding(String stepKey) {
+        Integer count = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM chunk_request WHERE step_key = ? AND status <> ?",
+                Integer.class, stepKey, ChunkRequest.COLLECTED);
+        return count == null ? 0 : count;
+    }
+
+    @Override
+    public List<ChunkRequest> replies(String stepKey) {
+        return jdbcTemplate.query(COLUMNS + " WHERE step_key = ? AND status IN (?, ?) ORDER BY id",
+                CHUNK_REQUEST_MAPPER, stepKey, ChunkRequest.DONE, ChunkRequest.FAILED);
+    }
+
+    @Override
+    public void collected(List<ChunkRequest> replies) {
+        jdbcTemplate.batchUpdate("UPDATE chunk_request SET status = ? WHERE id = ?",
+                replies.stream().map(reply -> new Object[]{ChunkRequest.COLLECTED, reply.getId()}).toList());
+    }
+
+    @Override
+    public int requeueExpired(String stepKey, Duration lease) {
+        return jdbcTemplate.update("UPDATE chunk_request SET status = ?, worker = NULL " +
+                        "WHERE step_key = ? AND status = ? AND claimed_at < ?",
+                ChunkRequest.NEW, stepKey, ChunkRequest.CLAIMED, LocalDateTime.now().minus(lease));
+    }
+
+    @Override
+    public int retryFailed(String stepKey) {
+        return jdbcTemplate.update("UPDATE chunk_request SET status = ?, worker = NULL, attempts = 0, error = NULL " +
+                "WHERE step_key = ? AND status = ?", ChunkRequest.NEW, stepKey, ChunkRequest.FAILED);
+    }
+
+    @Override
+    public ChunkRequest claim(String worker) {
+        List<Long> candidates = jdbcTemplate.queryForList("SELECT id FROM chunk_request WHERE status = ? ORDER BY id LIMIT ?",
+                Long.class, ChunkRequest.NEW, CLAIM_CANDIDATES);
+        for (Long id : candidates) {
+            int claimed = jdbcTemplate.update("UPDATE chunk_request SET status = ?, worker = ?, claimed_at = ?, " +
+                            "attempts = attempts + 1 WHERE id = ? AND status = ?",
+                    ChunkRequest.CLAIMED, worker, LocalDateTime.now(), id, ChunkRequest.NEW);
+            if (claimed == 1) {
+                return jdbcTemplate.queryForObject(COLUMNS + " WHERE id = ?", CHUNK_REQUEST_MAPPER, id);
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public void complete(ChunkRequest request, long readCount, long writeCount, long filterCount) {
+        int updated = jdbcTemplate.update("UPDATE chunk_request SET status = ?, completed_at = ?, read_count = ?, " +
+                        "write_count = ?, filter_count = ?, error = NULL WHERE id = ? AND status = ? AND worker = ?",
+                ChunkRequest.DONE, LocalDateTime.now(), readCount, writeCount, filterCount,
+                request.getId(), ChunkRequest.CLAIMED, request.getWorker());
+        if (updated != 1) {
+            throw new IllegalStateException("Lost the lease on " + request);
+        }
+    }
+
+    @Override
+    public void fail(ChunkRequest request, String error, int maxAttempts) {
+        // attempts was counted up by the claim that handed this request out.
+        String status = request.getAttempts() >= maxAttempts ? ChunkRequest.FAILED : ChunkRequest.NEW;
+        jdbcTemplate.update("UPDATE chunk_request SET status = ?, worker = NULL, error = ? " +
+                        "WHERE id = ? AND status = ? AND worker = ?",
+                status, abbreviate(error), request.getId(), ChunkRequest.CLAIMED, request.getWorker());
+    }
+
+    private static String abbreviate(String error) {
+        if (error == null || error.length() <= 1024) {
+            return error;
+        }
+        return error.substring(0, 1021) + "...";
+    }
+}
@@ -0,0 +1,192 @@
+package com.learn.springbatchexample.support;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.jetbrains.annotations.NotNull;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.batch.core.ChunkListener;
+import org.springframework.batch.core.ExitStatus;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.StepExecutionListener;
+import org.springframework.batch.core.scope.context.ChunkContext;
+import org.springframework.batch.repeat.RepeatContext;
+import org.springframework.batch.repeat.policy.CompletionPolicySupport;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Chunk completion policy that sizes each chunk so that a chunk transaction takes about
+ * target-ms, instead of committing after a fixed number of items. After every chunk
+ * the time per item is smoothed and the next size is derived from it. The size grows
+ * or shrinks by at most 2x per chunk and stays within min-size and max-size. A rolled
+ * back chunk (a lock timeout, for instance) halves the size.
+ * <p>
+ * State is kept per thread, so one instance serves partitioned workers as well. The
+ * size reached is saved in the step ExecutionContext for a restart, and remembered per
+ * step name as the starting size of the next run. Every chunk records its size in
+ * {@code batch.chunk.size} and its duration in {@code batch.chunk.duration}.
+ * With adaptive=false every chunk has initial-size items.
+ * <p>
+ * Pass it to {@code chunk(policy, transactionManager)} and register it as ChunkListener
+ * and StepExecutionListener of the same step.
+ */
+@Component
+public class AdaptiveChunkSizePolicy extends CompletionPolicySupport implements ChunkListener, StepExecutionListener {
+
+    private static final Logger log = LoggerFactory.getLogger(AdaptiveChunkSizePolicy.class);
+
+    private static final String SIZE_KEY = "adaptiveChunk.size";
+    // Weight of the latest chunk in the smoothed time per item.
+    private static final double SMOOTHING = 0.3;
+
+    private static class State {
+        int size;
+        int chunks;
+        int minSeen = Integer.MAX_VALUE;
+        int maxSeen;
+        double nanosPerItem;
+        long chunkStart;
+        long readCountAtStart;
+    }
+
+    private final MeterRegistry meterRegistry;
+    private final boolean adaptive;
+    private final int initialSize;
+    private final int minSize;
+    private final int maxSize;
+    private final long targetNanos;
+
+    private final ThreadLocal<State> state = new ThreadLocal<>();
+    private final Map<String, Integer> lastSizeByStep = new ConcurrentHashMap<>();
+    private final Map<String, DistributionSummary> sizeSummaries = new ConcurrentHashMap<>();
+    private final Map<String, Timer> durationTimers = new ConcurrentHashMap<>();
+
+    public AdaptiveChunkSizePolicy(MeterRegistry meterRegistry,
+                                   @Value("${batch.chunk.adaptive:true}") boolean adaptive,
+                                   @Value("${batch.chunk.initial-size:100}") int initialSize,
+                                   @Value("${batch.chunk.min-size:10}") int minSize,
+                                   @Value("${batch.chunk.max-size:5000}") int maxSize,
+                                   @Value("${batch.chunk.target-ms:500}") long targetMillis) {
+        this.meterRegistry = meterRegistry;
+        this.adaptive = adaptive;
+        this.initialSize = initialSize;
+        this.minSize = minSize;
+        this.maxSize = maxSize;
+        this.targetNanos = TimeUnit.MILLISECONDS.toNanos(targetMillis);
+    }
+
+    @Override
+    public boolean isComplete(@NotNull RepeatContext context) {
+        return context.getStartedCount() >= currentState().size;
+    }
+
+    @Override
+    public void beforeStep(@NotNull StepExecution stepExecution) {
+        State current = new State();
+        int size = stepExecution.getExecutionContext().getInt(SIZE_KEY,
+                lastSizeByStep.getOrDefault(stepExecution.getStepName(), initialSize));
+        current.size = adaptive ? clamp(size) : initialSize;
+        state.set(current);
+    }
+
+    @Override
+    public void beforeChunk(@NotNull ChunkContext context) {
+        State current = state.get();
+        if (current == null) {
+            return;
+        }
+        current.chunkStart = System.nanoTime();
+        current.readCountAtStart = context.getStepContext().getStepExecution().getReadCount();
+    }
+
+    @Override
+    public void afterChunk(@NotNull ChunkContext context) {
+        State current = state.get();
+        if (current == null) {
+            return;
+        }
+        StepExecution stepExecution = context.getStepContext().getStepExecution();
+        long items = stepExecution.getReadCount() - current.readCountAtStart;
+        if (items <= 0) {
+            return;
+        }
+        long elapsed = System.nanoTime() - current.chunkStart;
+        String step = stepExecution.getStepName();
+        record(step, items, elapsed);
+        current.chunks++;
+        current.minSeen = Math.min(current.minSeen, (int) items);
+        current.maxSeen = Math.max(current.maxSeen, (int) items);
+        if (!adaptive) {
+            return;
+        }
+
+        double perItem = (double) elapsed / items;
+        current.nanosPerItem = current.nanosPerItem == 0
+                ? perItem
+                : SMOOTHING * perItem + (1 - SMOOTHING) * current.nanosPerItem;
+        long wanted = Math.round(targetNanos / current.nanosPerItem);
+        wanted = Math.max(current.size / 2, Math.min(wanted, (long) current.size * 2));
+        resize(current, stepExecution, (int) wanted);
+    }
+
+    @Override
+    public void afterChunkError(@NotNull ChunkContext context) {
+        State current = state.get();
+        if (current != null && adaptive) {
+            resize(current, context.getStepContext().getStepExecution(), current.size / 2);
+            log.warn("Chunk of step {} rolled back, chunk size reduced to {}",
+                    context.getStepContext().getStepName(), current.size);
+        }
+    }
+
+    @Override
+    public ExitStatus afterStep(@NotNull StepExecution stepExecution) {
+        State current = state.get();
+        state.remove();
+        if (current != null && current.chunks > 0) {
+            lastSizeByStep.put(stepExecution.getStepName(), current.size);
+            log.info("Step {} ran {} chunks of {} to {} items, final chunk size {}",
+                    stepExecution.getStepName(), current.chunks, current.minSeen, current.maxSeen, current.size);
+        }
+        return stepExecution.getExitStatus();
+    }
+
+    private void resize(State current, StepExecution stepExecution, int size) {
+        current.size = clamp(size);
+        stepExecution.getExecutionContext().putInt(SIZE_KEY, current.size);
+    }
+
+    private int clamp(int size) {
+        return Math.max(minSize, Math.min(size, maxSize));
+    }
+
+    // Outside a step (a thread beforeStep has not run on) the initial size applies. That default is not
+    // stored: pooled threads would otherwise keep it, and chunks there are neither measured nor resized.
+    private State currentState() {
+        State current = state.get();
+        if (current == null) {
+            current = new State();
+            current.size = initialSize;
+        }
+        return current;
+    }
+
+    private void record(String step, long items, long elapsedNanos) {
+        sizeSummaries.computeIfAbsent(step, name -> DistributionSummary.builder("batch.chunk.size")
+                        .description("Items per chunk")
+                        .tag("step", name)
+                        .register(meterRegistry))
+                .record(items);
+        durationTimers.computeIfAbsent(step, name -> Timer.builder("batch.chunk.duration")
+                        .description("Duration of a chunk transaction, read to commit")
+                        .tag("step", name)
+                        .register(meterRegistry))
+                .record(elapsedNanos, TimeUnit.NANOSECONDS);
+    }
+}
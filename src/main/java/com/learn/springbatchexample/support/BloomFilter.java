@@ -0,0 +1,74 @@
+package com.learn.springbatchexample.support;
+
+/**
+ * A Bloom filter over string keys: {@link #mightContain} never misses a key that was
+ * put, and wrongly reports an absent key at about the false-positive rate it was sized
+ * for. The bit count and number of hash functions follow from the expected number of
+ * keys; the probe positions are derived from one 64-bit hash by double hashing.
+ * <p>
+ * Keys must all be put before the filter is shared; concurrent reads are safe after that.
+ */
+public class BloomFilter {
+
+    private static final double LN2 = Math.log(2);
+
+    private final long[] words;
+    private final long bitCount;
+    private final int hashCount;
+
+    public BloomFilter(long expectedKeys, double falsePositiveRate) {
+        long keys = Math.max(1, expectedKeys);
+        long bits = (long) Math.ceil(-keys * Math.log(falsePositiveRate) / (LN2 * LN2));
+        bits = Math.min(Math.max(64, bits), (long) Integer.MAX_VALUE * Long.SIZE);
+        this.words = new long[(int) ((bits + Long.SIZE - 1) / Long.SIZE)];
+        this.bitCount = (long) words.length * Long.SIZE;
+        this.hashCount = Math.min(30, Math.max(1, (int) Math.round((double) bitCount / keys * LN2)));
+    }
+
+    public void put(CharSequence key) {
+        long hash = hash(key);
+        long step = mix(hash ^ 0x9e3779b97f4a7c15L) | 1;
+        for (int i = 0; i < hashCount; i++) {
+            long bit = Math.floorMod(hash + i * step, bitCount);
+            words[(int) (bit >>> 6)] |= 1L << bit;
+        }
+    }
+
+    public boolean mightContain(CharSequence key) {
+        long hash = hash(key);
+        long step = mix(hash ^ 0x9e3779b97f4a7c15L) | 1;
+        for (int i = 0; i < hashCount; i++) {
+            long bit = Math.floorMod(hash + i * step, bitCount);
+            if ((words[(int) (bit >>> 6)] & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public long bitCount() {
+        return bitCount;
+    }
+
+    public int hashCount() {
+        return hashCount;
+    }
+
+    // FNV-1a over the chars, finished with the MurmurHash3 mix so every bit depends on the whole key.
+    private static long hash(CharSequence key) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < key.length(); i++) {
+            hash = (hash ^ key.charAt(i)) * 0x100000001b3L;
+        }
+        return mix(hash);
+    }
+
+    private static long mix(long value) {
+        value ^= value >>> 33;
+        value *= 0xff51afd7ed558ccdL;
+        value ^= value >>> 33;
+        value *= 0xc4ceb9fe1a85ec53L;
+        value ^= value >>> 33;
+        return value;
+    }
+}
@@ -0,0 +1,33 @@
+package com.learn.springbatchexample.support;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import javax.sql.DataSource;
+
+/**
+ * Wraps the application DataSource in a {@link ConnectionPermitDataSource} when
+ * batch.datasource.connection-permits is positive. JPA, Spring Batch's job repository
+ * and the JDBC writers all draw their connections through the same permits.
+ */
+@Configuration
+public class ConnectionPermitConfiguration {
+
+    @Bean
+    public static BeanPostProcessor connectionPermitPostProcessor(Environment environment) {
+        int permits = environment.getProperty("batch.datasource.connection-permits", Integer.class, 0);
+        long timeoutMillis = environment.getProperty("batch.datasource.permit-timeout-ms", Long.class, 30_000L);
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (permits > 0 && bean instanceof DataSource dataSource
+                        && !(bean instanceof ConnectionPermitDataSource)) {
+                    return new ConnectionPermitDataSource(dataSource, permits, timeoutMillis);
+                }
+                return bean;
+            }
+        };
+    }
+}
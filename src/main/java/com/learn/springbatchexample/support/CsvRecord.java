@@ -0,0 +1,93 @@
+package com.learn.springbatchexample.support;
+
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * A view of one delimited line inside a byte buffer. Fields are only located, not
+ * copied; numbers and dates are parsed straight from the bytes, and a String is
+ * created only when a mapper asks for one with {@link #string(int)}.
+ * The view is reused for every line, so mappers must not keep a reference to it.
+ */
+public class CsvRecord {
+
+    private final int maxFields;
+    private final int[] starts;
+    private final int[] ends;
+    private byte[] scratch = new byte[256];
+
+    private ByteBuffer buffer;
+    private int fieldCount;
+    // Set by the reader: 1-based, counted from the reader's start offset.
+    int lineNumber;
+
+    /**
+     * @param maxFields number of fields to split; the last one runs to the end of the line,
+     *                  so a trailing free-text column may contain the delimiter
+     */
+    public CsvRecord(int maxFields) {
+        this.maxFields = maxFields;
+        this.starts = new int[maxFields];
+        this.ends = new int[maxFields];
+    }
+
+    void reset(ByteBuffer buffer, int lineStart, int lineEnd, byte delimiter) {
+        this.buffer = buffer;
+        fieldCount = 0;
+        int fieldStart = lineStart;
+        for (int i = lineStart; i < lineEnd && fieldCount < maxFields - 1; i++) {
+            if (buffer.get(i) == delimiter) {
+                starts[fieldCount] = fieldStart;
+                ends[fieldCount] = i;
+                fieldCount++;
+                fieldStart = i + 1;
+            }
+        }
+        starts[fieldCount] = fieldStart;
+        ends[fieldCount] = lineEnd;
+        fieldCount++;
+    }
+
+    public int fieldCount() {
+        return fieldCount;
+    }
+
+    public int lineNumber() {
+        return lineNumber;
+    }
+
+    public String string(int field) {
+        int start = start(field);
+        int length = ends[field] - start;
+        if (scratch.length < length) {
+            scratch = new byte[Math.max(length, scratch.length * 2)];
+        }
+        buffer.get(start, scratch, 0, length);
+        return new String(scratch, 0, length, StandardCharsets.UTF_8);
+    }
+
+    // Plain decimal such as -100.00
+    public BigDecimal decimal(int field) {
+        return FixedFormatParsers.parseDecimal(buffer, start(field), ends[field]);
+    }
+
+    // yyyy-MM-dd
+    public LocalDate date(int field) {
+        return FixedFormatParsers.parseDate(buffer, start(field), ends[field]);
+    }
+
+    // yyyy-MM-dd HH:mm:ss
+    public LocalDateTime dateTime(int field) {
+        return FixedFormatParsers.parseDateTime(buffer, start(field), ends[field]);
+    }
+
+    private int start(int field) {
+        if (field >= fieldCount) {
+            throw new IndexOutOfBoundsException("Line has " + fieldCount + " fields, no field " + field);
+        }
+        return starts[field];
+    }
+}
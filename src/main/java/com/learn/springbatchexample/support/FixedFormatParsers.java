@@ -0,0 +1,159 @@
+package com.learn.springbatchexample.support;
+
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Parsers for the fixed layouts of our CSV files: {@code yyyy-MM-dd} dates,
+ * {@code yyyy-MM-dd HH:mm:ss} timestamps and plain decimal amounts. They read digits
+ * straight from a char or byte range, so no formatter, Date, time zone or temporary
+ * String is involved. All methods are stateless and thread-safe.
+ */
+public final class FixedFormatParsers {
+
+    private static final int DATE_LENGTH = 10;
+    private static final int DATE_TIME_LENGTH = 19;
+    private static final int MAX_LONG_DIGITS = 18;
+
+    @FunctionalInterface
+    private interface CharSource {
+        int charAt(int index);
+    }
+
+    private FixedFormatParsers() {
+    }
+
+    public static LocalDate parseDate(CharSequence text) {
+        return parseDate(text, 0, text.length());
+    }
+
+    public static LocalDate parseDate(CharSequence text, int from, int to) {
+        try {
+            return date(text::charAt, from, to);
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid date: " + text.subSequence(from, to), e);
+        }
+    }
+
+    public static LocalDate parseDate(ByteBuffer bytes, int from, int to) {
+        try {
+            return date(bytes::get, from, to);
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid date: " + text(bytes, from, to), e);
+        }
+    }
+
+    public static LocalDateTime parseDateTime(CharSequence text) {
+        return parseDateTime(text, 0, text.length());
+    }
+
+    public static LocalDateTime parseDateTime(CharSequence text, int from, int to) {
+        try {
+            return dateTime(text::charAt, from, to);
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid timestamp: " + text.subSequence(from, to), e);
+        }
+    }
+
+    public static LocalDateTime parseDateTime(ByteBuffer bytes, int from, int to) {
+        try {
+            return dateTime(bytes::get, from, to);
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid timestamp: " + text(bytes, from, to), e);
+        }
+    }
+
+    public static BigDecimal parseDecimal(CharSequence text) {
+        return parseDecimal(text, 0, text.length());
+    }
+
+    public static BigDecimal parseDecimal(CharSequence text, int from, int to) {
+        BigDecimal value;
+        try {
+            value = decimal(text::charAt, from, to);
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid amount: " + text.subSequence(from, to), e);
+        }
+        return value != null ? value : new BigDecimal(text.subSequence(from, to).toString().trim());
+    }
+
+    public static BigDecimal parseDecimal(ByteBuffer bytes, int from, int to) {
+        BigDecimal value;
+        try {
+            value = decimal(bytes::get, from, to);
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid amount: " + text(bytes, from, to), e);
+        }
+        return value != null ? value : new BigDecimal(text(bytes, from, to).trim());
+    }
+
+    private static LocalDate date(CharSource source, int from, int to) {
+        if (to - from != DATE_LENGTH || source.charAt(from + 4) != '-' || source.charAt(from + 7) != '-') {
+            throw new IllegalArgumentException("expected yyyy-MM-dd");
+        }
+        return LocalDate.of(digits(source, from, 4), digits(source, from + 5, 2), digits(source, from + 8, 2));
+    }
+
+    private static LocalDateTime dateTime(CharSource source, int from, int to) {
+        if (to - from != DATE_TIME_LENGTH || source.charAt(from + 4) != '-' || source.charAt(from + 7) != '-'
+                || source.charAt(from + 10) != ' ' || source.charAt(from + 13) != ':' || source.charAt(from + 16) != ':') {
+            throw new IllegalArgumentException("expected yyyy-MM-dd HH:mm:ss");
+        }
+        return LocalDateTime.of(digits(source, from, 4), digits(source, from + 5, 2), digits(source, from + 8, 2),
+                digits(source, from + 11, 2), digits(source, from + 14, 2), digits(source, from + 17, 2));
+    }
+
+    // Returns null when the value has more digits than a long holds; the caller falls back to BigDecimal.
+    private static BigDecimal decimal(CharSource source, int from, int to) {
+        int i = from;
+        boolean negative = false;
+        if (i < to && (source.charAt(i) == '-' || source.charAt(i) == '+')) {
+            negative = source.charAt(i) == '-';
+            i++;
+        }
+        long unscaled = 0;
+        int digits = 0;
+        int scale = -1;
+        for (; i < to; i++) {
+            int c = source.charAt(i);
+            if (c == '.' && scale < 0) {
+                scale = 0;
+            } else if (c >= '0' && c <= '9') {
+                if (++digits > MAX_LONG_DIGITS) {
+                    return null;
+                }
+                unscaled = unscaled * 10 + (c - '0');
+                if (scale >= 0) {
+                    scale++;
+                }
+            } else {
+                throw new IllegalArgumentException("unexpected character '" + (char) c + "'");
+            }
+        }
+        if (digits == 0) {
+            throw new IllegalArgumentException("no digits");
+        }
+        return BigDecimal.valueOf(negative ? -unscaled : unscaled, Math.max(scale, 0));
+    }
+
+    private static int digits(CharSource source, int from, int count) {
+        int value = 0;
+        for (int i = from; i < from + count; i++) {
+            int digit = source.charAt(i) - '0';
+            if (digit < 0 || digit > 9) {
+                throw new IllegalArgumentException("expected a digit at position " + (i - from));
+            }
+            value = value * 10 + digit;
+        }
+        return value;
+    }
+
+    private static String text(ByteBuffer bytes, int from, int to) {
+        byte[] copy = new byte[to - from];
+        bytes.get(from, copy);
+        return new String(copy, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,185 @@
+package com.learn.springbatchexample.support;
+
+import org.jetbrains.annotations.NotNull;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemStreamException;
+import org.springframework.batch.item.ItemStreamReader;
+import org.springframework.batch.item.file.FlatFileParseException;
+import org.springframework.core.io.Resource;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Reads a delimited file through a memory-mapped window instead of a Reader: line and
+ * field boundaries are found directly in the mapped bytes and handed to a
+ * {@link RecordMapper} as a {@link CsvRecord}, so no String, FieldSet or boxed value is
+ * built for a line unless the mapper needs it. Files larger than one window are
+ * remapped as the reader moves on.
+ * <p>
+ * The byte offset of the next unread line and its line number are saved in the
+ * ExecutionContext, so a restart continues at the first line of the failed chunk. Fields are split on the
+ * delimiter only; quoted fields are not supported.
+ */
+public class MappedCsvItemReader<T> implements ItemStreamReader<T> {
+
+    private static final long WINDOW_SIZE = 64L * 1024 * 1024;
+
+    @FunctionalInterface
+    public interface RecordMapper<T> {
+        T map(CsvRecord record) throws Exception;
+    }
+
+    private final Resource resource;
+    private final long startOffset;
+    private final long endOffset;
+    private final int linesToSkip;
+    private final byte delimiter;
+    private final RecordMapper<T> mapper;
+    private final CsvRecord record;
+    private final String offsetKey;
+    private final String lineKey;
+
+    private FileChannel channel;
+    private MappedByteBuffer window;
+    private long windowStart;
+    private long limit;
+    private long position;
+    private int lineNumber;
+
+    /**
+     * Reads the whole file, skipping {@code linesToSkip} header lines.
+     */
+    public MappedCsvItemReader(String name, Resource resource, int linesToSkip, int fieldCount, RecordMapper<T> mapper) {
+        this(name, resource, 0, -1, linesToSkip, fieldCount, mapper);
+    }
+
+    /**
+     * Reads the bytes [startOffset, endOffset) of the file, which must start and end on
+     * line boundaries; an endOffset of -1 means the end of the file.
+     */
+    public MappedCsvItemReader(String name, Resource resource, long startOffset, long endOffset,
+                               int linesToSkip, int fieldCount, RecordMapper<T> mapper) {
+        this.resource = resource;
+        this.startOffset = startOffset;
+        this.endOffset = endOffset;
+        this.linesToSkip = linesToSkip;
+        this.delimiter = ',';
+        this.mapper = mapper;
+        this.record = new CsvRecord(fieldCount);
+        this.offsetKey = name + ".offset";
+        this.lineKey = name + ".line";
+    }
+
+    @Override
+    public void open(@NotNull ExecutionContext executionContext) {
+        try {
+            channel = FileChannel.open(resource.getFile().toPath(), StandardOpenOption.READ);
+            limit = endOffset < 0 ? channel.size() : Math.min(endOffset, channel.size());
+            window = null;
+            lineNumber = 0;
+            if (executionContext.containsKey(offsetKey)) {
+                position = executionContext.getLong(offsetKey);
+                lineNumber = executionContext.getInt(lineKey, 0);
+            } else {
+                position = startOffset;
+                for (int i = 0; i < linesToSkip && position < limit; i++) {
+                    position = lineEnd(position) + 1;
+                    lineNumber++;
+                }
+            }
+        } catch (IOException e) {
+            throw new ItemStreamException("Unable to open " + resource.getDescription(), e);
+        }
+    }
+
+    @Override
+    public T read() {
+        while (position < limit) {
+            long end = lineEnd(position);
+            long next = end + 1;
+            if (end > position && window.get((int) (end - 1 - windowStart)) == '\r') {
+                end--;
+            }
+            lineNumber++;
+            if (end == position) {
+                // blank line
+                position = next;
+                continue;
+            }
+            int lineStart = (int) (position - windowStart);
+            int lineEnd = (int) (end - windowStart);
+            record.reset(window, lineStart, lineEnd, delimiter);
+            record.lineNumber = lineNumber;
+            position = next;
+            try {
+                return mapper.map(record);
+            } catch (Exception e) {
+                byte[] line = new byte[lineEnd - lineStart];
+                window.get(lineStart, line);
+                throw new FlatFileParseException("Parsing error at line: " + lineNumber + " in resource=["
+                        + resource.getDescription() + "]", e, new String(line, StandardCharsets.UTF_8), lineNumber);
+            }
+        }
+        return null;
+    }
+
+    // Returns the offset of the '\n' ending the line at the given offset, or the limit; maps the line if needed.
+    private long lineEnd(long lineStart) {
+        ensureMapped(lineStart);
+        while (true) {
+            long windowEnd = windowStart + window.limit();
+            for (long i = lineStart; i < windowEnd; i++) {
+                if (window.get((int) (i - windowStart)) == '\n') {
+                    return i;
+                }
+            }
+            if (windowEnd >= limit) {
+                return limit;
+            }
+            // The line runs past the window: remap starting at the line.
+            map(lineStart);
+        }
+    }
+
+    private void ensureMapped(long offset) {
+        if (window == null || offset < windowStart || offset >= windowStart + window.limit()) {
+            map(offset);
+        }
+    }
+
+    private void map(long offset) {
+        try {
+            long size = Math.min(WINDOW_SIZE, limit - offset);
+            if (window != null && windowStart == offset && window.limit() == size) {
+                throw new ItemStreamException("Line longer than " + WINDOW_SIZE + " bytes at offset " + offset);
+            }
+            window = channel.map(FileChannel.MapMode.READ_ONLY, offset, size);
+            windowStart = offset;
+        } catch (IOException e) {
+            throw new ItemStreamException("Unable to map " + resource.getDescription() + " at offset " + offset, e);
+        }
+    }
+
+    @Override
+    public void update(@NotNull ExecutionContext executionContext) {
+        executionContext.putLong(offsetKey, position);
+        executionContext.putInt(lineKey, lineNumber);
+    }
+
+    @Override
+    public void close() {
+        window = null;
+        if (channel != null) {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                throw new ItemStreamException("Unable to close " + resource.getDescription(), e);
+            }
+            channel = null;
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package com.learn.springbatchexample.support;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.jetbrains.annotations.NotNull;
+import org.springframework.batch.core.ChunkListener;
+import org.springframework.batch.core.ExitStatus;
+import org.springframework.batch.core.ItemWriteListener;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.StepExecutionListener;
+import org.springframework.batch.core.scope.context.ChunkContext;
+import org.springframework.batch.item.Chunk;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Step metrics on top of the read/process/write timers Spring Batch records itself:
+ * <ul>
+ *     <li>{@code batch.chunk.commit}: time from the end of a chunk's write to its commit.</li>
+ *     <li>{@code batch.step.items}: read, write, filter and skip counts per step.</li>
+ *     <li>{@code batch.step.throughput}: items written per second per step execution.</li>
+ * </ul>
+ * Nothing runs per item; the per-chunk work is a clock read and a map lookup, so it
+ * can stay registered in production. Register it as listener of the chunk-oriented
+ * steps (for partitioned steps, of the worker step).
+ */
+@Component
+public class StepMetricsListener implements StepExecutionListener, ChunkListener, ItemWriteListener<Object> {
+
+    private final MeterRegistry meterRegistry;
+    private final Map<String, Timer> commitTimers = new ConcurrentHashMap<>();
+    // End of the last write on this thread, 0 when no write is waiting for its commit.
+    private final ThreadLocal<long[]> writeEnd = ThreadLocal.withInitial(() -> new long[1]);
+
+    public StepMetricsListener(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public void afterWrite(@NotNull Chunk<?> items) {
+        writeEnd.get()[0] = System.nanoTime();
+    }
+
+    @Override
+    public void afterChunk(@NotNull ChunkContext context) {
+        long[] end = writeEnd.get();
+        if (end[0] == 0) {
+            return;
+        }
+        long elapsed = System.nanoTime() - end[0];
+        end[0] = 0;
+        commitTimers.computeIfAbsent(context.getStepContext().getStepName(),
+                        step -> Timer.builder("batch.chunk.commit")
+                                .description("Time from the end of a chunk's write to its commit")
+                                .tag("step", step)
+                                .register(meterRegistry))
+                .record(elapsed, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public void afterChunkError(@NotNull ChunkContext context) {
+        writeEnd.get()[0] = 0;
+    }
+
+    @Override
+    public ExitStatus afterStep(@NotNull StepExecution stepExecution) {
+        String step = stepExecution.getStepName();
+        count(step, "read", stepExecution.getReadCount());
+        count(step, "write", stepExecution.getWriteCount());
+        count(step, "filter", stepExecution.getFilterCount());
+        count(step, "skip", stepExecution.getSkipCount());
+
+        LocalDateTime startTime = stepExecution.getStartTime();
+        long millis = startTime == null ? 0 : Duration.between(startTime, LocalDateTime.now()).toMillis();
+        if (millis > 0) {
+            DistributionSummary.builder("batch.step.throughput")
+                    .description("Items written per second by a step execution")
+                    .baseUnit("items/s")
+                    .tag("step", step)
+                    .register(meterRegistry)
+                    .record(stepExecution.getWriteCount() * 1000.0 / millis);
+        }
+        return stepExecution.getExitStatus();
+    }
+
+    private void count(String step, String kind, long amount) {
+        meterRegistry.counter("batch.step.items", "step", step, "kind", kind).increment(amount);
+    }
+}
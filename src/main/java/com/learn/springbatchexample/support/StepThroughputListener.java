@@ -0,0 +1,36 @@
+package com.learn.springbatchexample.support;
+
+import org.jetbrains.annotations.NotNull;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.batch.core.ExitStatus;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.StepExecutionListener;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+/**
+ * Logs how many items a step read and wrote and the resulting items/sec, so the
+ * single-threaded and partitioned import modes can be compared run against run.
+ */
+public class StepThroughputListener implements StepExecutionListener {
+
+    private static final Logger log = LoggerFactory.getLogger(StepThroughputListener.class);
+
+    @Override
+    public ExitStatus afterStep(@NotNull StepExecution stepExecution) {
+        LocalDateTime startTime = stepExecution.getStartTime();
+        long millis = startTime == null ? 0 : Duration.between(startTime, LocalDateTime.now()).toMillis();
+        long written = stepExecution.getWriteCount();
+        double itemsPerSecond = millis == 0 ? written : written * 1000.0 / millis;
+        log.info("Step {} read={} written={} filtered={} in {} ms ({} items/sec)",
+                stepExecution.getStepName(),
+                stepExecution.getReadCount(),
+                written,
+                stepExecution.getFilterCount(),
+                millis,
+                String.format("%.1f", itemsPerSecond));
+        return stepExecution.getExitStatus();
+    }
+}
@@ -0,0 +1,28 @@
+package com.learn.springbatchexample.support;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.jdbc.support.MetaDataAccessException;
+
+import javax.sql.DataSource;
+import java.sql.DatabaseMetaData;
+
+/**
+ * JdbcTemplate for forward-only reads of large result sets with a RowCallbackHandler.
+ * MySQL Connector/J only streams rows one by one with a fetch size of
+ * Integer.MIN_VALUE and otherwise loads the whole result set into memory; other
+ * drivers take a regular fetch size.
+ * <p>
+ * A streaming MySQL connection cannot run other statements until the result set is
+ * read to its end, so use it for standalone scans only.
+ */
+public class StreamingJdbcTemplate extends JdbcTemplate {
+
+    private static final int FETCH_SIZE = 1000;
+
+    public StreamingJdbcTemplate(DataSource dataSource) throws MetaDataAccessException {
+        super(dataSource);
+        String product = JdbcUtils.extractDatabaseMetaData(dataSource, DatabaseMetaData::getDatabaseProductName);
+        setFetchSize("MySQL".equalsIgnoreCase(product) ? Integer.MIN_VALUE : FETCH_SIZE);
+    }
+}
@@ -0,0 +1,31 @@
+package com.learn.springbatchexample.support;
+
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+/**
+ * Executors of the multi-threaded steps: either virtual threads, at most {@code threads}
+ * of them running at once, or a pool of {@code threads} platform threads. Return the
+ * result from a {@code @Bean} method, so the pool is initialized and shut down with
+ * the context.
+ */
+public final class TaskExecutors {
+
+    private TaskExecutors() {
+    }
+
+    public static TaskExecutor create(String threadNamePrefix, int threads, boolean virtualThreads) {
+        if (virtualThreads) {
+            SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor(threadNamePrefix);
+            executor.setVirtualThreads(true);
+            executor.setConcurrencyLimit(threads);
+            return executor;
+        }
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setThreadNamePrefix(threadNamePrefix);
+        return executor;
+    }
+}
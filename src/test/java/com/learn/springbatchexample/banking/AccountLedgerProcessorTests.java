@@ -0,0 +1,202 @@
+package com.learn.springbatchexample.banking;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.StepContribution;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.scope.context.ChunkContext;
+import org.springframework.batch.core.scope.context.StepContext;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.test.MetaDataInstanceFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AccountLedgerProcessorTests {
+
+    private static final String STEP_NAME = "processTransactionStep";
+
+    @TempDir
+    Path snapshotDir;
+
+    private EmbeddedDatabase database;
+    private JdbcTemplate jdbcTemplate;
+    private JobExecution jobExecution;
+
+    @BeforeEach
+    void createDatabase() {
+        database = new EmbeddedDatabaseBuilder()
+                .setType(EmbeddedDatabaseType.H2)
+                .generateUniqueName(true)
+                .build();
+        jdbcTemplate = new JdbcTemplate(database);
+        jdbcTemplate.execute("CREATE TABLE account_balance (account_number VARCHAR(255) PRIMARY KEY, " +
+                "balance DECIMAL(19, 2))");
+        jdbcTemplate.update("INSERT INTO account_balance VALUES ('1001', 100.00)");
+        jobExecution = MetaDataInstanceFactory.createJobExecution("bankingTransactionJob", 7L, 1L);
+    }
+
+    @AfterEach
+    void dropDatabase() {
+        database.shutdown();
+    }
+
+    @Test
+    void startsFromStoredBalancesAndRejectsOverdrafts() {
+        AccountLedgerProcessor processor = open(new ExecutionContext(), 100);
+
+        assertEquals("PROCESSED", processor.process(transaction("1001", "-60.00")).getStatus());
+        assertEquals("REJECTED", processor.process(transaction("1001", "-60.00")).getStatus());
+        assertEquals("PROCESSED", processor.process(transaction("1002", "25.00")).getStatus());
+        processor.close();
+    }
+
+    @Test
+    void keepsOnlySequenceNumbersInTheExecutionContext() {
+        ExecutionContext context = new ExecutionContext();
+        AccountLedgerProcessor processor = open(context, 1000);
+        for (int i = 0; i < 5000; i++) {
+            processor.process(transaction(String.valueOf(2000 + i), "1.00"));
+        }
+        processor.update(context);
+        processor.close();
+
+        assertEquals(3, context.size());
+        assertEquals(0, context.getInt(AccountLedgerCheckpoint.DELTAS_KEY));
+        assertEquals(1, context.getInt(AccountLedgerCheckpoint.SNAPSHOT_KEY));
+    }
+
+    @Test
+    void restartsFromSnapshotAndDeltasAndIgnoresUncommittedChunks() throws Exception {
+        ExecutionContext context = new ExecutionContext();
+        AccountLedgerProcessor processor = open(context, 3);
+        processor.process(transaction("1001", "10.00"));
+        processor.process(transaction("1002", "20.00"));
+        processor.update(context);
+        processor.process(transaction("1003", "30.00"));
+        processor.update(context);
+        // Snapshot 1 after three changed balances, then a delta on top of it.
+        processor.process(transaction("1001", "5.00"));
+        processor.update(context);
+        assertEquals(1, context.getInt(AccountLedgerCheckpoint.SNAPSHOT_KEY));
+        assertEquals(1, context.getInt(AccountLedgerCheckpoint.DELTAS_KEY));
+
+        // This chunk's delta is written, but its context is never committed.
+        processor.process(transaction("1001", "1000.00"));
+        processor.update(new ExecutionContext());
+        processor.close();
+
+        AccountLedgerProcessor restarted = open(new ExecutionContext(context), 3);
+        // 100 + 10 + 5 = 115 stored, so 115.01 is an overdraft and 115 is not.
+        assertEquals("REJECTED", restarted.process(transaction("1001", "-115.01")).getStatus());
+        assertEquals("PROCESSED", restarted.process(transaction("1001", "-115.00")).getStatus());
+        assertEquals("REJECTED", restarted.process(transaction("1003", "-30.01")).getStatus());
+        restarted.process(transaction("1002", "1.00"));
+        restarted.update(context);
+        restarted.close();
+
+        flush(context);
+        assertEquals(new BigDecimal("0.00"), balance("1001"));
+        assertEquals(new BigDecimal("21.00"), balance("1002"));
+        assertEquals(new BigDecimal("30.00"), balance("1003"));
+    }
+
+    @Test
+    void flushesChangedBalancesAndDeletesTheCheckpointFiles() throws Exception {
+        ExecutionContext context = new ExecutionContext();
+        AccountLedgerProcessor processor = open(context, 2);
+        processor.process(transaction("1001", "-40.00"));
+        processor.update(context);
+        processor.process(transaction("1002", "12.34"));
+        processor.process(transaction("1003", "1.00"));
+        processor.update(context);
+        processor.process(transaction("1003", "2.00"));
+        processor.update(context);
+        processor.close();
+
+        StepExecution flushStep = flush(context);
+        assertEquals(3, flushStep.getWriteCount());
+        assertEquals(new BigDecimal("60.00"), balance("1001"));
+        assertEquals(new BigDecimal("12.34"), balance("1002"));
+        assertEquals(new BigDecimal("3.00"), balance("1003"));
+
+        // A restart after the flush committed finds it recorded and adds nothing.
+        execute(flushStep);
+        assertEquals(new BigDecimal("60.00"), balance("1001"));
+        assertEquals(3, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM account_balance", Integer.class));
+
+        flushStep.setStatus(BatchStatus.COMPLETED);
+        new AccountLedgerFlushTasklet(database, STEP_NAME, 16, snapshotDir).afterStep(flushStep);
+        try (Stream<Path> files = Files.list(snapshotDir)) {
+            assertEquals(0, files.count());
+        }
+    }
+
+    @Test
+    void addsToBalancesChangedByAnotherRun() throws Exception {
+        ExecutionContext context = new ExecutionContext();
+        AccountLedgerProcessor processor = open(context, 100);
+        processor.process(transaction("1001", "-40.00"));
+        processor.process(transaction("1002", "12.34"));
+        processor.update(context);
+        processor.close();
+
+        // A concurrent run flushes its own changes to both accounts first.
+        jdbcTemplate.update("UPDATE account_balance SET balance = balance + 5 WHERE account_number = '1001'");
+        jdbcTemplate.update("INSERT INTO account_balance VALUES ('1002', 1.00)");
+
+        flush(context);
+        assertEquals(new BigDecimal("65.00"), balance("1001"));
+        assertEquals(new BigDecimal("13.34"), balance("1002"));
+    }
+
+    private AccountLedgerProcessor open(ExecutionContext context, int snapshotEvery) {
+        AccountLedgerProcessor processor = new AccountLedgerProcessor(database, "PROCESSED", 0, 16, snapshotEvery,
+                snapshotDir);
+        processor.beforeStep(MetaDataInstanceFactory.createStepExecution(jobExecution, STEP_NAME, 1L));
+        processor.open(context);
+        return processor;
+    }
+
+    // Promotes the checkpoint as processTransactionStep's promotion listener does, then runs the flush tasklet.
+    private StepExecution flush(ExecutionContext ledgerContext) throws Exception {
+        jobExecution.getExecutionContext().putInt(AccountLedgerCheckpoint.SNAPSHOT_KEY,
+                ledgerContext.getInt(AccountLedgerCheckpoint.SNAPSHOT_KEY));
+        jobExecution.getExecutionContext().putInt(AccountLedgerCheckpoint.DELTAS_KEY,
+                ledgerContext.getInt(AccountLedgerCheckpoint.DELTAS_KEY));
+        StepExecution stepExecution = MetaDataInstanceFactory.createStepExecution(jobExecution,
+                "accountLedgerFlushStep", 2L);
+        execute(stepExecution);
+        return stepExecution;
+    }
+
+    private void execute(StepExecution stepExecution) throws Exception {
+        new AccountLedgerFlushTasklet(database, STEP_NAME, 16, snapshotDir)
+                .execute(new StepContribution(stepExecution), new ChunkContext(new StepContext(stepExecution)));
+    }
+
+    private BigDecimal balance(String accountNumber) {
+        return jdbcTemplate.queryForObject("SELECT balance FROM account_balance WHERE account_number = ?",
+                BigDecimal.class, accountNumber);
+    }
+
+    private static BankingTransaction transaction(String accountNumber, String amount) {
+        BankingTransaction transaction = new BankingTransaction();
+        transaction.setAccountNumber(accountNumber);
+        transaction.setAmount(new BigDecimal(amount));
+        transaction.setStatus("PENDING");
+        return transaction;
+    }
+}
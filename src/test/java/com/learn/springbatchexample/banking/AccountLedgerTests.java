@@ -0,0 +1,93 @@
+package com.learn.springbatchexample.banking;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AccountLedgerTests {
+
+    @Test
+    void keepsRunningBalancesAcrossGrowth() {
+        AccountLedger ledger = new AccountLedger(4);
+        for (int i = 0; i < 1000; i++) {
+            ledger.add(String.valueOf(100000 + i), 100);
+            ledger.add(String.valueOf(100000 + i), -30);
+        }
+        assertEquals(1000, ledger.size());
+        assertEquals(70, ledger.balance("100000"));
+        assertEquals(70, ledger.balance("100999"));
+        assertEquals(0, ledger.balance("101000"));
+    }
+
+    @Test
+    void keepsLeadingZerosApart() {
+        AccountLedger ledger = new AccountLedger(16);
+        ledger.add("0042", 1);
+        ledger.add("42", 2);
+        assertEquals(1, ledger.balance("0042"));
+        assertEquals(2, ledger.balance("42"));
+        assertThrows(IllegalArgumentException.class, () -> ledger.add("ACC-42", 1));
+    }
+
+    @Test
+    void tracksDirtyBalancesUntilCleared() {
+        AccountLedger ledger = new AccountLedger(16);
+        ledger.put("1001", 500, false);
+        ledger.add("1002", 250);
+
+        Map<String, Long> dirty = new HashMap<>();
+        ledger.forEach((account, balance, delta, isDirty) -> {
+            if (isDirty) {
+                dirty.put(account, balance);
+            }
+        });
+        assertEquals(Map.of("1002", 250L), dirty);
+
+        ledger.clearDirty();
+        ledger.forEach((account, balance, delta, isDirty) -> assertFalse(isDirty));
+    }
+
+    @Test
+    void tracksDeltasFromTheLoadedBalances() {
+        AccountLedger ledger = new AccountLedger(16);
+        ledger.put("1001", 500, false);
+        ledger.add("1001", -120);
+        ledger.add("1001", 20);
+        ledger.add("1002", 250);
+
+        assertEquals(400, ledger.balance("1001"));
+        assertEquals(-100, ledger.delta("1001"));
+        assertEquals(250, ledger.delta("1002"));
+        assertEquals(0, ledger.delta("1003"));
+    }
+
+    @Test
+    void restoresFromSnapshot(@TempDir Path dir) throws Exception {
+        AccountLedger ledger = new AccountLedger(16);
+        ledger.put("1001", 500, false);
+        ledger.add("1001", 10);
+        ledger.add("1002", -250);
+        ledger.writeSnapshot(dir.resolve("ledger.1"));
+
+        AccountLedger restored = new AccountLedger(16);
+        restored.readSnapshot(dir.resolve("ledger.1"));
+        assertEquals(2, restored.size());
+        assertEquals(510, restored.balance("1001"));
+        assertEquals(10, restored.delta("1001"));
+        assertEquals(-250, restored.balance("1002"));
+        assertEquals(-250, restored.delta("1002"));
+    }
+
+    @Test
+    void convertsAmountsToCents() {
+        assertEquals(12345, AccountLedger.toCents(new BigDecimal("123.45")));
+        assertEquals(new BigDecimal("-0.05"), AccountLedger.fromCents(-5));
+        assertThrows(ArithmeticException.class, () -> AccountLedger.toCents(new BigDecimal("1.005")));
+    }
+}
@@ -0,0 +1,126 @@
+package com.learn.springbatchexample.banking;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class KeysetTransactionItemReaderTests {
+
+    private static final int ROWS = 50_000;
+    private static final int PAGE_SIZE = 500;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private DataSource dataSource;
+
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void insertPendingTransactions() {
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.update("DELETE FROM bank_transaction");
+        Timestamp date = Timestamp.valueOf(LocalDateTime.of(2025, 6, 23, 0, 0));
+        List<Object[]> rows = new ArrayList<>(ROWS);
+        for (int i = 0; i < ROWS; i++) {
+            rows.add(new Object[]{String.valueOf(100_000_000 + i), BigDecimal.valueOf(i), date, "PENDING"});
+        }
+        jdbcTemplate.batchUpdate(
+                "INSERT INTO bank_transaction (account_number, amount, transaction_date, status) VALUES (?, ?, ?, ?)",
+                rows);
+    }
+
+    @Test
+    void readsEveryPendingRowOnceWhileRowsLeaveTheResultSet() {
+        KeysetTransactionItemReader reader =
+                new KeysetTransactionItemReader("test", entityManagerFactory, "PENDING", PAGE_SIZE);
+        reader.open(new ExecutionContext());
+
+        Set<Long> seen = new HashSet<>();
+        List<Long> chunk = new ArrayList<>();
+        List<Long> pageReadNanos = new ArrayList<>();
+        while (true) {
+            long start = System.nanoTime();
+            BankingTransaction transaction = reader.read();
+            if (seen.size() % PAGE_SIZE == 0) {
+                // This read fetched a new page.
+                pageReadNanos.add(System.nanoTime() - start);
+            }
+            if (transaction == null) {
+                break;
+            }
+            assertTrue(seen.add(transaction.getId()), "row read twice: " + transaction.getId());
+            chunk.add(transaction.getId());
+            if (chunk.size() == PAGE_SIZE) {
+                markProcessed(chunk);
+                chunk.clear();
+            }
+        }
+        markProcessed(chunk);
+        reader.close();
+
+        assertEquals(ROWS, seen.size());
+        assertEquals(0, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM bank_transaction WHERE status = 'PENDING'", Integer.class));
+
+        // Per-page latency stays flat: the last pages cost about the same as the first ones.
+        long firstPages = median(pageReadNanos.subList(1, 11));
+        long lastPages = median(pageReadNanos.subList(pageReadNanos.size() - 11, pageReadNanos.size() - 1));
+        assertTrue(lastPages <= firstPages * 5 + 5_000_000,
+                "first pages " + firstPages + " ns, last pages " + lastPages + " ns");
+    }
+
+    @Test
+    void restartsAfterTheLastSavedId() {
+        ExecutionContext executionContext = new ExecutionContext();
+        KeysetTransactionItemReader reader =
+                new KeysetTransactionItemReader("test", entityManagerFactory, "PENDING", PAGE_SIZE);
+        reader.open(executionContext);
+        long lastId = 0;
+        for (int i = 0; i < 750; i++) {
+            lastId = reader.read().getId();
+        }
+        reader.update(executionContext);
+        reader.close();
+
+        KeysetTransactionItemReader restarted =
+                new KeysetTransactionItemReader("test", entityManagerFactory, "PENDING", PAGE_SIZE);
+        restarted.open(executionContext);
+        Long expectedNext = jdbcTemplate.queryForObject(
+                "SELECT MIN(id) FROM bank_transaction WHERE id > ?", Long.class, lastId);
+        assertEquals(expectedNext, restarted.read().getId());
+        restarted.close();
+    }
+
+    private void markProcessed(List<Long> ids) {
+        List<Object[]> args = new ArrayList<>(ids.size());
+        ids.forEach(id -> args.add(new Object[]{id}));
+        jdbcTemplate.batchUpdate("UPDATE bank_transaction SET status = 'PROCESSED' WHERE id = ?", args);
+    }
+
+    private static long median(List<Long> values) {
+        List<Long> sorted = new ArrayList<>(values);
+        sorted.sort(null);
+        return sorted.get(sorted.size() / 2);
+    }
+}
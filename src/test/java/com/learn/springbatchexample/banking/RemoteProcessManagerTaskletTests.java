@@ -0,0 +1,88 @@
+package com.learn.springbatchexample.banking;
+
+import com.learn.springbatchexample.remote.ChunkRequest;
+import com.learn.springbatchexample.remote.JdbcChunkChannel;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.core.StepContribution;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.scope.context.ChunkContext;
+import org.springframework.batch.core.scope.context.StepContext;
+import org.springframework.batch.repeat.RepeatStatus;
+import org.springframework.batch.test.MetaDataInstanceFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RemoteProcessManagerTaskletTests {
+
+    private EmbeddedDatabase database;
+    private JdbcChunkChannel channel;
+    private StepExecution stepExecution;
+    private StepContribution contribution;
+    private ChunkContext chunkContext;
+
+    @BeforeEach
+    void createDatabase() {
+        database = new EmbeddedDatabaseBuilder()
+                .setType(EmbeddedDatabaseType.H2)
+                .generateUniqueName(true)
+                .build();
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(database);
+        jdbcTemplate.execute("CREATE TABLE chunk_request (id BIGINT AUTO_INCREMENT PRIMARY KEY, " +
+                "step_key VARCHAR(128) NOT NULL, first_id BIGINT, last_id BIGINT, item_count INT, " +
+                "status VARCHAR(16) NOT NULL, worker VARCHAR(128), attempts INT, claimed_at TIMESTAMP, " +
+                "completed_at TIMESTAMP, read_count BIGINT, write_count BIGINT, filter_count BIGINT, " +
+                "error VARCHAR(1024))");
+        jdbcTemplate.execute("CREATE TABLE bank_transaction (id BIGINT PRIMARY KEY, status VARCHAR(255))");
+        jdbcTemplate.update("INSERT INTO bank_transaction VALUES (1, 'PENDING'), (2, 'PENDING'), (3, 'PROCESSED')");
+        channel = new JdbcChunkChannel(database);
+        stepExecution = MetaDataInstanceFactory.createStepExecution();
+        contribution = new StepContribution(stepExecution);
+        chunkContext = new ChunkContext(new StepContext(stepExecution));
+    }
+
+    @AfterEach
+    void dropDatabase() {
+        database.shutdown();
+    }
+
+    @Test
+    void collectsTheRepliesAndFinishes() throws Exception {
+        RemoteProcessManagerTasklet manager = manager(Duration.ofMinutes(1));
+        manager.beforeStep(stepExecution);
+        assertEquals(RepeatStatus.CONTINUABLE, manager.execute(contribution, chunkContext));
+
+        ChunkRequest request = channel.claim("worker");
+        assertEquals(1, request.getFirstId());
+        assertEquals(2, request.getLastId());
+        channel.complete(request, 2, 2, 0);
+
+        assertEquals(RepeatStatus.FINISHED, manager.execute(contribution, chunkContext));
+        assertEquals(2, contribution.getReadCount());
+        assertEquals(2, contribution.getWriteCount());
+    }
+
+    @Test
+    void failsWhenNoWorkerRepliesWithinTheTimeout() throws Exception {
+        RemoteProcessManagerTasklet manager = manager(Duration.ofMillis(500));
+        manager.beforeStep(stepExecution);
+        assertEquals(RepeatStatus.CONTINUABLE, manager.execute(contribution, chunkContext));
+        Thread.sleep(600);
+
+        IllegalStateException e = assertThrows(IllegalStateException.class,
+                () -> manager.execute(contribution, chunkContext));
+        assertTrue(e.getMessage().startsWith("No chunk reply for PT0.5S with 1 requests outstanding"), e.getMessage());
+    }
+
+    private RemoteProcessManagerTasklet manager(Duration timeout) {
+        return new RemoteProcessManagerTasklet(channel, database, "PENDING", 10, 4, Duration.ofMinutes(5), 10,
+                timeout);
+    }
+}
@@ -0,0 +1,99 @@
+package com.learn.springbatchexample.banking;
+
+import com.learn.springbatchexample.remote.ChunkChannel;
+import com.learn.springbatchexample.remote.ChunkRequest;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.TypedQuery;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.item.Chunk;
+import org.springframework.batch.item.ItemProcessor;
+import org.springframework.batch.item.database.JpaItemWriter;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.mockito.Mockito.*;
+
+class RemoteProcessWorkerTests {
+
+    private ChunkChannel chunkChannel;
+    private JpaItemWriter<BankingTransaction> writer;
+    private PlatformTransactionManager transactionManager;
+    private ChunkRequest request;
+    private RemoteProcessWorker worker;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void createMocks() {
+        chunkChannel = mock(ChunkChannel.class);
+        writer = mock(JpaItemWriter.class);
+        transactionManager = mock(PlatformTransactionManager.class);
+        when(transactionManager.getTransaction(any())).thenAnswer(invocation -> new SimpleTransactionStatus());
+        request = new ChunkRequest();
+        request.setId(1L);
+        request.setFirstId(10L);
+        request.setLastId(11L);
+        request.setWorker("worker");
+        request.setAttempts(1);
+        when(chunkChannel.claim(anyString())).thenReturn(request, (ChunkRequest) null);
+    }
+
+    @AfterEach
+    void stopWorker() {
+        if (worker != null) {
+            worker.stop();
+        }
+    }
+
+    @Test
+    void writesTheProcessedItemsAndRepliesWithTheCounts() throws Exception {
+        // The negative amount is filtered out.
+        start(transaction -> transaction.getAmount().signum() < 0 ? null : transaction,
+                transaction(10L, "5.00"), transaction(11L, "-1.00"));
+
+        verify(chunkChannel, timeout(5000)).complete(request, 2, 1, 1);
+        verify(writer).write(argThat((Chunk<? extends BankingTransaction> chunk) ->
+                chunk.size() == 1 && chunk.getItems().get(0).getId() == 10L));
+        verify(chunkChannel, never()).fail(any(), any(), anyInt());
+        verify(transactionManager, timeout(5000)).commit(any());
+    }
+
+    @Test
+    void releasesAChunkThatFailsForAnotherAttempt() throws Exception {
+        start(transaction -> {
+            throw new IllegalArgumentException("boom");
+        }, transaction(10L, "5.00"));
+
+        verify(chunkChannel, timeout(5000)).fail(eq(request), contains("boom"), eq(3));
+        verify(chunkChannel, never()).complete(any(), anyLong(), anyLong(), anyLong());
+        verify(writer, never()).write(any());
+        verify(transactionManager).rollback(any());
+    }
+
+    @SuppressWarnings("unchecked")
+    private void start(ItemProcessor<BankingTransaction, BankingTransaction> processor,
+                       BankingTransaction... items) {
+        TypedQuery<BankingTransaction> query = mock(TypedQuery.class, RETURNS_SELF);
+        when(query.getResultList()).thenReturn(List.of(items));
+        EntityManager entityManager = mock(EntityManager.class);
+        when(entityManager.createQuery(anyString(), eq(BankingTransaction.class))).thenReturn(query);
+        worker = new RemoteProcessWorker(chunkChannel, processor, writer, transactionManager,
+                new SimpleMeterRegistry(), 1, false, 10, 3);
+        ReflectionTestUtils.setField(worker, "entityManager", entityManager);
+        worker.start();
+    }
+
+    private static BankingTransaction transaction(long id, String amount) {
+        BankingTransaction transaction = new BankingTransaction();
+        transaction.setId(id);
+        transaction.setAmount(new BigDecimal(amount));
+        transaction.setStatus("PENDING");
+        return transaction;
+    }
+}
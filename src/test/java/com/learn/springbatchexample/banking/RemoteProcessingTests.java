@@ -0,0 +1,76 @@
+package com.learn.springbatchexample.banking;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.Job;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobParametersBuilder;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.launch.JobLauncher;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// The manager step and two worker threads of this instance, through the chunk_request table.
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE, properties = {
+        "spring.datasource.url=jdbc:h2:mem:remote-processing;DB_CLOSE_DELAY=-1",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.sql.init.mode=always",
+        "spring.sql.init.schema-locations=classpath:org/springframework/batch/core/schema-h2.sql",
+        "logs.generator.mode=off",
+        "log.csv.path=${java.io.tmpdir}/remote-processing-logs.csv",
+        "banking.transactions.file=classpath:transactions.csv",
+        "banking.import.partitioned=false",
+        "banking.process.remote.enabled=true",
+        "banking.process.remote.chunk-size=2",
+        "banking.process.remote.poll-ms=20",
+        "banking.process.remote.timeout-seconds=60",
+        "banking.process.remote.worker.enabled=true",
+        "banking.process.remote.worker.threads=2"})
+class RemoteProcessingTests {
+
+    @Autowired
+    private JobLauncher jobLauncher;
+
+    @Autowired
+    private Job bankingTransactionJob;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Test
+    void workersProcessTheChunksTheManagerSends() throws Exception {
+        JobExecution execution = jobLauncher.run(bankingTransactionJob, new JobParametersBuilder()
+                .addLong("time", System.nanoTime())
+                .toJobParameters());
+        assertEquals(BatchStatus.COMPLETED, execution.getStatus(), execution.getExitStatus().toString());
+
+        StepExecution processStep = execution.getStepExecutions().stream()
+                .filter(step -> "processTransactionStep".equals(step.getStepName()))
+                .findFirst()
+                .orElseThrow();
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        Integer processed = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM bank_transaction WHERE status = 'PROCESSED'", Integer.class);
+        Integer pending = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM bank_transaction WHERE status = 'PENDING'", Integer.class);
+        Integer uncollected = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM chunk_request WHERE status <> 'COLLECTED'", Integer.class);
+
+        // transactions.csv has three valid lines, sent as two chunks of at most two ids.
+        assertEquals(3, processed);
+        assertEquals(0, pending);
+        assertEquals(0, uncollected);
+        assertEquals(3, processStep.getReadCount());
+        assertEquals(3, processStep.getWriteCount());
+        assertEquals(2, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM chunk_request", Integer.class));
+    }
+}
@@ -0,0 +1,117 @@
+package com.learn.springbatchexample.benchmark;
+
+import com.learn.springbatchexample.SpringBatchExampleApplication;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.Job;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobParametersBuilder;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.launch.JobLauncher;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * End-to-end bankingTransactionJob (import, decision, processing) on a generated file
+ * of {@code rows} transactions, against a file-backed H2 database. The application
+ * starts once per trial without the web server and the log generator. Each operation
+ * is one synchronous job run on an emptied table.
+ * <p>
+ * Every row count runs with the serial and the partitioned import. Pass {@code -p writer=jpa}
+ * or {@code -p reader=mapped} to compare the other import options, for example
+ * {@code mvn -Pbenchmark verify -DskipTests -Dbenchmark.include=BankingJobBenchmark}.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(value = 1, jvmArgs = "-Xmx4g")
+@State(Scope.Benchmark)
+public class BankingJobBenchmark {
+
+    @Param({"1000000", "10000000"})
+    public int rows;
+
+    @Param({"flatfile"})
+    public String reader;
+
+    @Param({"jdbc"})
+    public String writer;
+
+    // "serial" or "partitioned"; set explicitly so application.properties does not decide.
+    @Param({"serial", "partitioned"})
+    public String importMode;
+
+    private Path transactionsFile;
+    private Path databaseDir;
+    private ConfigurableApplicationContext context;
+    private JobLauncher jobLauncher;
+    private Job bankingTransactionJob;
+    private JdbcTemplate jdbcTemplate;
+
+    @Setup(Level.Trial)
+    public void startApplication() throws IOException {
+        transactionsFile = BenchmarkFiles.transactions(rows);
+        databaseDir = Files.createTempDirectory("banking-job-");
+        context = new SpringApplicationBuilder(SpringBatchExampleApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties(
+                        "spring.datasource.url=jdbc:h2:file:" + databaseDir.resolve("bench") + ";DB_CLOSE_ON_EXIT=FALSE",
+                        "spring.datasource.driver-class-name=org.h2.Driver",
+                        "spring.datasource.username=sa",
+                        "spring.datasource.password=",
+                        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+                        "spring.jpa.hibernate.ddl-auto=create",
+                        "spring.jpa.show-sql=false",
+                        // @EnableBatchProcessing turns Boot's batch schema initializer off
+                        "spring.sql.init.mode=always",
+                        "spring.sql.init.schema-locations=classpath:org/springframework/batch/core/schema-h2.sql",
+                        "logging.level.web=info",
+                        "logs.generator.mode=off",
+                        "log.csv.path=" + databaseDir.resolve("logs.csv"),
+                        "banking.transactions.file=file:" + transactionsFile,
+                        "banking.import.reader=" + reader,
+                        "banking.import.writer=" + writer,
+                        "banking.import.partitioned=" + "partitioned".equals(importMode),
+                        // Every iteration imports the same file into an emptied table.
+                        "banking.import.dedup.enabled=false")
+                .run();
+        jobLauncher = context.getBean("jobLauncher", JobLauncher.class);
+        bankingTransactionJob = context.getBean("bankingTransactionJob", Job.class);
+        jdbcTemplate = new JdbcTemplate(context.getBean(DataSource.class));
+    }
+
+    @Setup(Level.Iteration)
+    public void emptyTable() {
+        jdbcTemplate.execute("TRUNCATE TABLE bank_transaction");
+    }
+
+    @TearDown(Level.Trial)
+    public void stopApplication() throws IOException {
+        context.close();
+        Files.deleteIfExists(transactionsFile);
+        try (var files = Files.walk(databaseDir)) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    @Benchmark
+    public long runJob() throws Exception {
+        JobExecution execution = jobLauncher.run(bankingTransactionJob, new JobParametersBuilder()
+                .addLong("time", System.nanoTime())
+                .toJobParameters());
+        if (execution.getStatus() != BatchStatus.COMPLETED) {
+            throw new IllegalStateException("Job ended " + execution.getStatus() + ": " + execution.getExitStatus());
+        }
+        return execution.getStepExecutions().stream().mapToLong(StepExecution::getWriteCount).sum();
+    }
+}
@@ -0,0 +1,49 @@
+package com.learn.springbatchexample.benchmark;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import jakarta.persistence.EntityManagerFactory;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
+import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter;
+
+import java.util.Map;
+
+/**
+ * Embedded H2 with the application's entities mapped by Hibernate, for benchmarking
+ * the writers without starting the application.
+ */
+final class BenchmarkDatabase implements AutoCloseable {
+
+    final HikariDataSource dataSource;
+    final EntityManagerFactory entityManagerFactory;
+    final JpaTransactionManager transactionManager;
+
+    BenchmarkDatabase(String name) {
+        HikariConfig config = new HikariConfig();
+        config.setJdbcUrl("jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1");
+        config.setMaximumPoolSize(4);
+        dataSource = new HikariDataSource(config);
+
+        LocalContainerEntityManagerFactoryBean factory = new LocalContainerEntityManagerFactoryBean();
+        factory.setDataSource(dataSource);
+        factory.setPackagesToScan("com.learn.springbatchexample");
+        factory.setJpaVendorAdapter(new HibernateJpaVendorAdapter());
+        factory.setJpaPropertyMap(Map.of(
+                "hibernate.hbm2ddl.auto", "create-drop",
+                "hibernate.dialect", "org.hibernate.dialect.H2Dialect",
+                "hibernate.jdbc.batch_size", "50"));
+        factory.afterPropertiesSet();
+        entityManagerFactory = factory.getObject();
+
+        transactionManager = new JpaTransactionManager(entityManagerFactory);
+        // Lets JdbcTemplate writers share the JPA transaction's connection, as in the application.
+        transactionManager.setDataSource(dataSource);
+    }
+
+    @Override
+    public void close() {
+        entityManagerFactory.close();
+        dataSource.close();
+    }
+}
@@ -0,0 +1,68 @@
+package com.learn.springbatchexample.benchmark;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Random;
+
+/**
+ * Generates CSV input files in the layout of transactions.csv and logs.csv.
+ */
+final class BenchmarkFiles {
+
+    private static final DateTimeFormatter DATE_TIME = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    private static final String[] LEVELS = {"INFO", "ERROR", "WARN"};
+    private static final String[] COMPONENTS = {"Auth", "Payment", "Order", "Database", "Notification"};
+    private static final String[] MESSAGES = {
+            "User logged in successfully.",
+            "Payment processed successfully.",
+            "Order delayed due to inventory check.",
+            "Database connection lost.",
+            "Invalid credentials provided."
+    };
+
+    private BenchmarkFiles() {
+    }
+
+    static Path transactions(int lines) throws IOException {
+        Path file = Files.createTempFile("transactions-", ".csv");
+        Random random = new Random(42);
+        try (BufferedWriter writer = Files.newBufferedWriter(file)) {
+            writer.write("accountNumber,amount,transactionDate\n");
+            for (int i = 0; i < lines; i++) {
+                writer.write(String.valueOf(100_000_000 + random.nextInt(900_000_000)));
+                writer.write(',');
+                writer.write(String.valueOf(random.nextInt(2_000_000) - 100_000));
+                writer.write('.');
+                writer.write(String.format("%02d", random.nextInt(100)));
+                writer.write(",2025-06-");
+                writer.write(String.format("%02d", 1 + random.nextInt(28)));
+                writer.write('\n');
+            }
+        }
+        return file;
+    }
+
+    static Path logs(int lines) throws IOException {
+        Path file = Files.createTempFile("logs-", ".csv");
+        Random random = new Random(42);
+        LocalDateTime timestamp = LocalDateTime.of(2025, 6, 23, 0, 0);
+        try (BufferedWriter writer = Files.newBufferedWriter(file)) {
+            writer.write("timestamp,level,component,message\n");
+            for (int i = 0; i < lines; i++) {
+                writer.write(timestamp.plusSeconds(i).format(DATE_TIME));
+                writer.write(',');
+                writer.write(LEVELS[random.nextInt(LEVELS.length)]);
+                writer.write(',');
+                writer.write(COMPONENTS[random.nextInt(COMPONENTS.length)]);
+                writer.write(',');
+                writer.write(MESSAGES[random.nextInt(MESSAGES.length)]);
+                writer.write('\n');
+            }
+        }
+        return file;
+    }
+}
@@ -0,0 +1,97 @@
+package com.learn.springbatchexample.benchmark;
+
+import com.learn.springbatchexample.banking.BankingTransaction;
+import com.learn.springbatchexample.banking.BankingTransactionMappers;
+import com.learn.springbatchexample.logs.LogEntry;
+import com.learn.springbatchexample.logs.LogEntryMappers;
+import com.learn.springbatchexample.support.MappedCsvItemReader;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemStreamReader;
+import org.springframework.batch.item.file.builder.FlatFileItemReaderBuilder;
+import org.springframework.core.io.FileSystemResource;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reads a whole generated file per operation with the FlatFileItemReader and with the
+ * MappedCsvItemReader, using the same mappers as the import steps.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgs = "-Xmx2g")
+@State(Scope.Benchmark)
+public class CsvReaderBenchmark {
+
+    @Param({"10000000"})
+    public int lines;
+
+    private Path transactionsFile;
+    private Path logsFile;
+
+    @Setup(Level.Trial)
+    public void generateFiles() throws IOException {
+        transactionsFile = BenchmarkFiles.transactions(lines);
+        logsFile = BenchmarkFiles.logs(lines);
+    }
+
+    @TearDown(Level.Trial)
+    public void deleteFiles() throws IOException {
+        Files.deleteIfExists(transactionsFile);
+        Files.deleteIfExists(logsFile);
+    }
+
+    @Benchmark
+    public long transactionsFlatFileReader(Blackhole blackhole) throws Exception {
+        return drain(new FlatFileItemReaderBuilder<BankingTransaction>()
+                .name("bench")
+                .resource(new FileSystemResource(transactionsFile))
+                .linesToSkip(1)
+                .delimited()
+                .names(BankingTransactionMappers.FIELD_NAMES)
+                .fieldSetMapper(BankingTransactionMappers.fieldSetMapper())
+                .build(), blackhole);
+    }
+
+    @Benchmark
+    public long transactionsMappedReader(Blackhole blackhole) throws Exception {
+        return drain(new MappedCsvItemReader<>("bench", new FileSystemResource(transactionsFile), 1, 3,
+                BankingTransactionMappers.recordMapper()), blackhole);
+    }
+
+    @Benchmark
+    public long logsFlatFileReader(Blackhole blackhole) throws Exception {
+        return drain(new FlatFileItemReaderBuilder<LogEntry>()
+                .name("bench")
+                .resource(new FileSystemResource(logsFile))
+                .linesToSkip(1)
+                .delimited()
+                .names(LogEntryMappers.FIELD_NAMES)
+                .fieldSetMapper(LogEntryMappers.fieldSetMapper())
+                .build(), blackhole);
+    }
+
+    @Benchmark
+    public long logsMappedReader(Blackhole blackhole) throws Exception {
+        return drain(new MappedCsvItemReader<>("bench", new FileSystemResource(logsFile), 1, 4,
+                LogEntryMappers.recordMapper()), blackhole);
+    }
+
+    private static <T> long drain(ItemStreamReader<T> reader, Blackhole blackhole) throws Exception {
+        reader.open(new ExecutionContext());
+        long count = 0;
+        T item;
+        while ((item = reader.read()) != null) {
+            blackhole.consume(item);
+            count++;
+        }
+        reader.close();
+        return count;
+    }
+}
@@ -0,0 +1,94 @@
+package com.learn.springbatchexample.benchmark;
+
+import com.learn.springbatchexample.support.ConnectionPermitDataSource;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Load test of the two execution modes: each operation runs {@code tasks} I/O-bound
+ * tasks, each of which waits {@code ioMillis} (a remote call) and then runs a query
+ * against an embedded H2 through a 10-connection Hikari pool behind a
+ * ConnectionPermitDataSource. "platform" uses a pool of {@code platformThreads}
+ * threads, "virtual" one virtual thread per task.
+ * <p>
+ * Tasks per second follow from the time per operation. The heap in use while every
+ * task has been submitted is reported as the {@code heapUsedMb} counter; run with
+ * {@code -prof gc} for allocation rates.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgs = "-Xmx1g")
+@State(Scope.Benchmark)
+public class ExecutorLoadBenchmark {
+
+    @Param({"platform", "virtual"})
+    public String threads;
+
+    @Param({"10000"})
+    public int tasks;
+
+    @Param({"5"})
+    public int ioMillis;
+
+    @Param({"200"})
+    public int platformThreads;
+
+    private HikariDataSource pool;
+    private JdbcTemplate jdbcTemplate;
+
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    @State(Scope.Thread)
+    public static class Memory {
+        public double heapUsedMb;
+    }
+
+    @Setup(Level.Trial)
+    public void createDataSource() {
+        HikariConfig config = new HikariConfig();
+        config.setJdbcUrl("jdbc:h2:mem:load;DB_CLOSE_DELAY=-1");
+        config.setMaximumPoolSize(10);
+        pool = new HikariDataSource(config);
+        jdbcTemplate = new JdbcTemplate(new ConnectionPermitDataSource(pool, 10, 60_000));
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS bank_transaction (id BIGINT PRIMARY KEY, status VARCHAR(16))");
+        jdbcTemplate.execute("MERGE INTO bank_transaction KEY (id) VALUES (1, 'PENDING')");
+    }
+
+    @TearDown(Level.Trial)
+    public void closeDataSource() {
+        pool.close();
+    }
+
+    @Benchmark
+    public long runTasks(Memory memory) throws Exception {
+        List<Future<Integer>> results = new ArrayList<>(tasks);
+        try (ExecutorService executor = "virtual".equals(threads)
+                ? Executors.newVirtualThreadPerTaskExecutor()
+                : Executors.newFixedThreadPool(platformThreads)) {
+            for (int i = 0; i < tasks; i++) {
+                results.add(executor.submit(() -> {
+                    Thread.sleep(ioMillis);
+                    return jdbcTemplate.queryForObject(
+                            "SELECT COUNT(*) FROM bank_transaction WHERE status = 'PENDING'", Integer.class);
+                }));
+            }
+            memory.heapUsedMb = ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed() / (1024.0 * 1024);
+            long found = 0;
+            for (Future<Integer> result : results) {
+                found += result.get();
+            }
+            return found;
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package com.learn.springbatchexample.benchmark;
+
+import com.learn.springbatchexample.support.FixedFormatParsers;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the parsing done by the old field-set mappers (SimpleDateFormat plus a
+ * system-zone conversion, a DateTimeFormatter built per line, new BigDecimal(String))
+ * with FixedFormatParsers on Strings and on byte ranges.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class FixedFormatParsersBenchmark {
+
+    private final String date = "2025-06-23";
+    private final String dateTime = "2025-06-23 10:15:00";
+    private final String amount = "15000.50";
+    private final ByteBuffer line =
+            ByteBuffer.wrap("2025-06-23 10:15:00,15000.50".getBytes(StandardCharsets.US_ASCII));
+
+    @Benchmark
+    public LocalDateTime dateViaSimpleDateFormat() throws ParseException {
+        SimpleDateFormat format = new SimpleDateFormat("yyyy-MM-dd");
+        format.setLenient(false);
+        return format.parse(date).toInstant().atZone(ZoneId.systemDefault()).toLocalDateTime();
+    }
+
+    @Benchmark
+    public LocalDateTime dateViaFixedFormatParser() {
+        return FixedFormatParsers.parseDate(date).atStartOfDay();
+    }
+
+    @Benchmark
+    public LocalDate dateFromBytes() {
+        return FixedFormatParsers.parseDate(line, 0, 10);
+    }
+
+    @Benchmark
+    public LocalDateTime dateTimeViaFormatterPerLine() {
+        return LocalDateTime.parse(dateTime, DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss"));
+    }
+
+    @Benchmark
+    public LocalDateTime dateTimeViaFixedFormatParser() {
+        return FixedFormatParsers.parseDateTime(dateTime);
+    }
+
+    @Benchmark
+    public LocalDateTime dateTimeFromBytes() {
+        return FixedFormatParsers.parseDateTime(line, 0, 19);
+    }
+
+    @Benchmark
+    public BigDecimal amountViaBigDecimalConstructor() {
+        return new BigDecimal(amount);
+    }
+
+    @Benchmark
+    public BigDecimal amountViaFixedFormatParser() {
+        return FixedFormatParsers.parseDecimal(amount);
+    }
+
+    @Benchmark
+    public BigDecimal amountFromBytes() {
+        return FixedFormatParsers.parseDecimal(line, 20, 28);
+    }
+}
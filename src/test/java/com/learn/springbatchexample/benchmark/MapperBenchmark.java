@@ -0,0 +1,52 @@
+package com.learn.springbatchexample.benchmark;
+
+import com.learn.springbatchexample.banking.BankingTransaction;
+import com.learn.springbatchexample.banking.BankingTransactionMappers;
+import com.learn.springbatchexample.logs.LogEntry;
+import com.learn.springbatchexample.logs.LogEntryMappers;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.batch.item.file.mapping.FieldSetMapper;
+import org.springframework.batch.item.file.transform.DelimitedLineTokenizer;
+import org.springframework.batch.item.file.transform.FieldSet;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The field-set mappers of bankingTransactionItemReader and logEntryItemReader on
+ * already tokenized lines, so only the mapping itself is measured.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class MapperBenchmark {
+
+    private final FieldSetMapper<BankingTransaction> transactionMapper = BankingTransactionMappers.fieldSetMapper();
+    private final FieldSetMapper<LogEntry> logEntryMapper = LogEntryMappers.fieldSetMapper();
+
+    private FieldSet transactionFields;
+    private FieldSet logEntryFields;
+
+    @Setup
+    public void tokenize() {
+        DelimitedLineTokenizer transactionTokenizer = new DelimitedLineTokenizer();
+        transactionTokenizer.setNames(BankingTransactionMappers.FIELD_NAMES);
+        transactionFields = transactionTokenizer.tokenize("987654321,15000.50,2025-06-22");
+
+        DelimitedLineTokenizer logTokenizer = new DelimitedLineTokenizer();
+        logTokenizer.setNames(LogEntryMappers.FIELD_NAMES);
+        logEntryFields = logTokenizer.tokenize("2025-06-23 10:15:00,ERROR,Payment,Payment processed successfully.");
+    }
+
+    @Benchmark
+    public BankingTransaction transactionFieldSetMapper() throws Exception {
+        return transactionMapper.mapFieldSet(transactionFields);
+    }
+
+    @Benchmark
+    public LogEntry logEntryFieldSetMapper() throws Exception {
+        return logEntryMapper.mapFieldSet(logEntryFields);
+    }
+}
@@ -0,0 +1,62 @@
+package com.learn.springbatchexample.benchmark;
+
+import com.learn.springbatchexample.banking.BankingTransaction;
+import com.learn.springbatchexample.banking.BatchConfig;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.batch.item.ItemProcessor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * bankingTransactionItemProcessor, for kept and for filtered (negative) amounts, and
+ * transactionStatusProcessor, taken from BatchConfig as the steps use them.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class ProcessorBenchmark {
+
+    private ItemProcessor<BankingTransaction, BankingTransaction> validationProcessor;
+    private ItemProcessor<BankingTransaction, BankingTransaction> statusProcessor;
+    private BankingTransaction positive;
+    private BankingTransaction negative;
+
+    @Setup
+    public void createProcessors() {
+        BatchConfig config = new BatchConfig(null, null, new SimpleMeterRegistry(), null, null);
+        validationProcessor = config.bankingTransactionItemProcessor();
+        statusProcessor = config.transactionStatusProcessor();
+        positive = transaction("15000.50");
+        negative = transaction("-100.00");
+    }
+
+    @Benchmark
+    public BankingTransaction validationKeepsPositiveAmount() throws Exception {
+        return validationProcessor.process(positive);
+    }
+
+    @Benchmark
+    public BankingTransaction validationFiltersNegativeAmount() throws Exception {
+        return validationProcessor.process(negative);
+    }
+
+    @Benchmark
+    public BankingTransaction statusTransition() throws Exception {
+        return statusProcessor.process(positive);
+    }
+
+    private static BankingTransaction transaction(String amount) {
+        BankingTransaction transaction = new BankingTransaction();
+        transaction.setAccountNumber("987654321");
+        transaction.setAmount(new BigDecimal(amount));
+        transaction.setTransactionDate(LocalDateTime.of(2025, 6, 22, 0, 0));
+        transaction.setStatus("PENDING");
+        return transaction;
+    }
+}
@@ -0,0 +1,132 @@
+package com.learn.springbatchexample.benchmark;
+
+import com.learn.springbatchexample.banking.BankingTransaction;
+import com.learn.springbatchexample.logs.LogBatchConfiguration;
+import com.learn.springbatchexample.logs.LogDictionary;
+import com.learn.springbatchexample.logs.LogEntry;
+import com.learn.springbatchexample.support.MultiRowInsertItemWriter;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.batch.item.Chunk;
+import org.springframework.batch.item.ItemWriter;
+import org.springframework.batch.item.database.builder.JpaItemWriterBuilder;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writes one chunk per operation, in its own transaction, against embedded H2: transactions
+ * with the JpaItemWriter ("jpa") and the multi-row JDBC writer ("jdbc"), and log entries
+ * with LogBatchConfiguration's logEntryItemWriter ("jpa-log") and jdbcLogEntryItemWriter
+ * ("jdbc-log"). Log entries are dictionary encoded beforehand, as importLogEntriesStep's
+ * processor does. Items per second = operations per second x chunkSize.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgs = "-Xmx2g")
+@State(Scope.Benchmark)
+public class WriterBenchmark {
+
+    @Param({"jpa", "jdbc", "jpa-log", "jdbc-log"})
+    public String writer;
+
+    @Param({"100", "1000"})
+    public int chunkSize;
+
+    private BenchmarkDatabase database;
+    private TransactionTemplate transactionTemplate;
+    private ItemWriter<Object> itemWriter;
+    private List<Object> items;
+
+    @Setup(Level.Trial)
+    public void createWriter() throws Exception {
+        database = new BenchmarkDatabase("writers");
+        transactionTemplate = new TransactionTemplate(database.transactionManager);
+        if (writer.endsWith("-log")) {
+            createLogWriter();
+            return;
+        }
+        ItemWriter<BankingTransaction> transactionWriter;
+        if ("jdbc".equals(writer)) {
+            transactionWriter = new MultiRowInsertItemWriter<>(database.dataSource,
+                    "bank_transaction",
+                    new String[]{"account_number", "amount", "transaction_date", "status"},
+                    transaction -> new Object[]{
+                            transaction.getAccountNumber(),
+                            transaction.getAmount(),
+                            transaction.getTransactionDate(),
+                            transaction.getStatus()},
+                    100);
+        } else {
+            transactionWriter = new JpaItemWriterBuilder<BankingTransaction>()
+                    .entityManagerFactory(database.entityManagerFactory)
+                    .build();
+        }
+        itemWriter = untyped(transactionWriter);
+        items = new ArrayList<>(chunkSize);
+        for (int i = 0; i < chunkSize; i++) {
+            BankingTransaction transaction = new BankingTransaction();
+            transaction.setAccountNumber(String.valueOf(100_000_000 + i));
+            transaction.setAmount(BigDecimal.valueOf(i, 2));
+            transaction.setTransactionDate(LocalDateTime.of(2025, 6, 23, 0, 0));
+            transaction.setStatus("PENDING");
+            items.add(transaction);
+        }
+    }
+
+    // The application's own writer beans, with the default rows per INSERT.
+    private void createLogWriter() {
+        LogDictionary dictionary = new LogDictionary(database.dataSource, database.transactionManager, 1024);
+        LogBatchConfiguration configuration = new LogBatchConfiguration();
+        ReflectionTestUtils.setField(configuration, "importRowsPerInsert", 100);
+        itemWriter = untyped("jdbc-log".equals(writer)
+                ? configuration.jdbcLogEntryItemWriter(database.dataSource, dictionary)
+                : configuration.logEntryItemWriter(database.entityManagerFactory));
+        String[] levels = {"INFO", "WARN", "ERROR", "DEBUG"};
+        items = new ArrayList<>(chunkSize);
+        for (int i = 0; i < chunkSize; i++) {
+            LogEntry entry = new LogEntry();
+            entry.setTimestamp(LocalDateTime.of(2025, 6, 23, 0, 0).plusSeconds(i));
+            entry.setLevel(levels[i % levels.length]);
+            entry.setComponent("component-" + i % 8);
+            entry.setMessage("Message " + i % 64);
+            items.add(dictionary.encode(entry));
+        }
+    }
+
+    // Keeps the table from growing across iterations.
+    @Setup(Level.Iteration)
+    public void emptyTable() {
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(database.dataSource);
+        jdbcTemplate.execute("TRUNCATE TABLE bank_transaction");
+        jdbcTemplate.execute("TRUNCATE TABLE log_entry");
+    }
+
+    @TearDown(Level.Trial)
+    public void closeDatabase() {
+        database.close();
+    }
+
+    @Benchmark
+    public void writeChunk() {
+        transactionTemplate.executeWithoutResult(status -> {
+            try {
+                itemWriter.write(new Chunk<>(items));
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+    }
+
+    @SuppressWarnings("unchecked")
+    private static ItemWriter<Object> untyped(ItemWriter<?> itemWriter) {
+        return (ItemWriter<Object>) itemWriter;
+    }
+}
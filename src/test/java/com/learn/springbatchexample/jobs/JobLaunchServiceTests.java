@@ -0,0 +1,87 @@
+package com.learn.springbatchexample.jobs;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.Job;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobParameters;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.explore.JobExplorer;
+import org.springframework.batch.core.job.DefaultJobParametersValidator;
+import org.springframework.batch.core.repository.JobRepository;
+import org.springframework.batch.test.MetaDataInstanceFactory;
+
+import java.time.LocalDateTime;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class JobLaunchServiceTests {
+
+    private JobRepository jobRepository;
+    private JobExplorer jobExplorer;
+    private Job job;
+    private JobLaunchService jobLaunchService;
+
+    @BeforeEach
+    void createService() throws Exception {
+        jobRepository = mock(JobRepository.class);
+        jobExplorer = mock(JobExplorer.class);
+        job = mock(Job.class);
+        when(job.getName()).thenReturn("logRetentionJob");
+        when(job.getJobParametersValidator()).thenReturn(new DefaultJobParametersValidator());
+        when(jobRepository.createJobExecution(anyString(), any()))
+                .thenReturn(MetaDataInstanceFactory.createJobExecution("logRetentionJob", 2L, 2L));
+        jobLaunchService = new JobLaunchService(jobRepository, jobExplorer, false, 1, 600);
+    }
+
+    @Test
+    void failsAnExecutionAbandonedByAPreviousJvm() throws Exception {
+        JobExecution abandoned = runningExecution(LocalDateTime.now().minusHours(2));
+        when(jobExplorer.findRunningJobExecutions("logRetentionJob")).thenReturn(Set.of(abandoned));
+
+        assertNotNull(jobLaunchService.launch(job, new JobParameters()));
+
+        assertEquals(BatchStatus.FAILED, abandoned.getStatus());
+        StepExecution step = abandoned.getStepExecutions().iterator().next();
+        assertEquals(BatchStatus.FAILED, step.getStatus());
+        verify(jobRepository).update(step);
+        verify(jobRepository).update(abandoned);
+    }
+
+    @Test
+    void countsAnExecutionOfAPreviousJvmThatIsStillUpdated() {
+        JobExecution running = runningExecution(LocalDateTime.now().minusHours(2));
+        running.getStepExecutions().iterator().next().setLastUpdated(LocalDateTime.now().minusSeconds(5));
+        when(jobExplorer.findRunningJobExecutions("logRetentionJob")).thenReturn(Set.of(running));
+
+        assertThrows(JobLimitExceededException.class, () -> jobLaunchService.launch(job, new JobParameters()));
+        assertEquals(BatchStatus.STARTED, running.getStatus());
+        verify(jobRepository, never()).update(any(JobExecution.class));
+    }
+
+    @Test
+    void countsAnExecutionStartedByThisJvm() {
+        JobExecution running = runningExecution(LocalDateTime.now().plusSeconds(1));
+        running.setLastUpdated(LocalDateTime.now().minusHours(2));
+        when(jobExplorer.findRunningJobExecutions("logRetentionJob")).thenReturn(Set.of(running));
+
+        assertThrows(JobLimitExceededException.class, () -> jobLaunchService.launch(job, new JobParameters()));
+        assertEquals(BatchStatus.STARTED, running.getStatus());
+    }
+
+    // A STARTED execution with one STARTED step, both last updated when they were created.
+    private static JobExecution runningExecution(LocalDateTime createTime) {
+        JobExecution execution = MetaDataInstanceFactory.createJobExecution("logRetentionJob", 1L, 1L);
+        execution.setStatus(BatchStatus.STARTED);
+        execution.setCreateTime(createTime);
+        execution.setLastUpdated(createTime);
+        StepExecution step = execution.createStepExecution("logRetentionStep");
+        step.setId(1L);
+        step.setStatus(BatchStatus.STARTED);
+        step.setLastUpdated(createTime);
+        return execution;
+    }
+}
@@ -0,0 +1,119 @@
+package com.learn.springbatchexample.logs;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LogDictionaryTests {
+
+    private EmbeddedDatabase database;
+
+    @BeforeEach
+    void createDatabase() {
+        database = new EmbeddedDatabaseBuilder()
+                .setType(EmbeddedDatabaseType.H2)
+                .generateUniqueName(true)
+                .build();
+        new JdbcTemplate(database).execute(
+                "CREATE TABLE log_dictionary (id INT AUTO_INCREMENT PRIMARY KEY, kind VARCHAR(16) NOT NULL, " +
+                        "name VARCHAR(255) NOT NULL, CONSTRAINT uk_log_dictionary_kind_name UNIQUE (kind, name))");
+    }
+
+    @AfterEach
+    void dropDatabase() {
+        database.shutdown();
+    }
+
+    private LogDictionary newDictionary(int messageCacheSize) {
+        return new LogDictionary(database, new DataSourceTransactionManager(database), messageCacheSize);
+    }
+
+    @Test
+    void encodesRepeatedValuesAsSharedCodesAndStrings() {
+        LogDictionary dictionary = newDictionary(16);
+        LogEntry first = dictionary.encode(entry("ERROR", "Payment", "Database connection lost."));
+        LogEntry second = dictionary.encode(entry(new String("ERROR"), new String("Payment"),
+                new String("Database connection lost.")));
+
+        assertEquals(first.getLevelCode(), second.getLevelCode());
+        assertEquals(first.getComponentCode(), second.getComponentCode());
+        assertNotEquals(first.getLevelCode(), first.getComponentCode());
+        assertSame(first.getLevel(), second.getLevel());
+        assertSame(first.getComponent(), second.getComponent());
+        assertSame(first.getMessage(), second.getMessage());
+    }
+
+    @Test
+    void findsCodesAddedByAnotherInstance() {
+        Short code = newDictionary(16).code(LogDictionary.Kind.COMPONENT, "Auth");
+
+        LogDictionary other = newDictionary(16);
+        assertEquals(code, other.find(LogDictionary.Kind.COMPONENT, "Auth"));
+        assertEquals("Auth", other.decode(code));
+        assertNull(other.find(LogDictionary.Kind.LEVEL, "Auth"));
+    }
+
+    @Test
+    void stopsCanonicalizingMessagesWhenTheCacheIsFull() {
+        LogDictionary dictionary = newDictionary(1);
+        String kept = dictionary.canonicalMessage("User logged in successfully.");
+        assertSame(kept, dictionary.canonicalMessage(new String("User logged in successfully.")));
+
+        String other = new String("Order delayed due to inventory check.");
+        assertSame(other, dictionary.canonicalMessage(other));
+    }
+
+    @Test
+    void backfillsCodesOfRowsWrittenBeforeTheEncoding() {
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(database);
+        jdbcTemplate.execute("CREATE TABLE log_entry (id BIGINT AUTO_INCREMENT PRIMARY KEY, timestamp TIMESTAMP, " +
+                "level VARCHAR(255), component VARCHAR(255), level_code SMALLINT, component_code SMALLINT, " +
+                "message VARCHAR(1024))");
+        for (int i = 0; i < 25; i++) {
+            jdbcTemplate.update("INSERT INTO log_entry (level, component, message) VALUES (?, ?, 'x')",
+                    i % 2 == 0 ? "INFO" : "ERROR", "Auth");
+        }
+        LogDictionary dictionary = newDictionary(16);
+        Short warn = dictionary.code(LogDictionary.Kind.LEVEL, "WARN");
+        // A row written after the encoding: codes only.
+        jdbcTemplate.update("INSERT INTO log_entry (level_code, message) VALUES (?, 'y')", warn);
+
+        LogCodeBackfill backfill = new LogCodeBackfill(database, dictionary, true, 10);
+        assertEquals(50, backfill.backfill());
+        assertEquals(0, backfill.backfill());
+
+        Short error = dictionary.find(LogDictionary.Kind.LEVEL, "ERROR");
+        Short auth = dictionary.find(LogDictionary.Kind.COMPONENT, "Auth");
+        assertEquals(12, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM log_entry WHERE level_code = ?",
+                Integer.class, error));
+        assertEquals(25, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM log_entry WHERE component_code = ?",
+                Integer.class, auth));
+        assertEquals(1, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM log_entry WHERE level_code = ?",
+                Integer.class, warn));
+    }
+
+    @Test
+    void skipsTheBackfillWithoutLegacyColumns() {
+        new JdbcTemplate(database).execute("CREATE TABLE log_entry (id BIGINT AUTO_INCREMENT PRIMARY KEY, " +
+                "level_code SMALLINT, component_code SMALLINT)");
+        assertEquals(0, new LogCodeBackfill(database, newDictionary(16), true, 10).backfill());
+    }
+
+    private static LogEntry entry(String level, String component, String message) {
+        LogEntry entry = new LogEntry();
+        entry.setTimestamp(LocalDateTime.of(2025, 6, 23, 10, 0));
+        entry.setLevel(level);
+        entry.setComponent(component);
+        entry.setMessage(message);
+        return entry;
+    }
+}
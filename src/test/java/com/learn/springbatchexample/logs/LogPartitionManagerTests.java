@@ -0,0 +1,170 @@
+package com.learn.springbatchexample.logs;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class LogPartitionManagerTests {
+
+    private static final Clock JUNE_23 = Clock.fixed(LocalDate.of(2025, 6, 23).atTime(12, 0).toInstant(ZoneOffset.UTC),
+            ZoneOffset.UTC);
+
+    private EmbeddedDatabase database;
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void createDatabase() {
+        database = new EmbeddedDatabaseBuilder()
+                .setType(EmbeddedDatabaseType.H2)
+                .generateUniqueName(true)
+                .build();
+        jdbcTemplate = new JdbcTemplate(database);
+        jdbcTemplate.execute("CREATE TABLE log_entry (id BIGINT AUTO_INCREMENT PRIMARY KEY, timestamp TIMESTAMP, " +
+                "level_code SMALLINT, component_code SMALLINT, message VARCHAR(1024))");
+        LocalDateTime now = LocalDateTime.now();
+        insert(now.minusDays(100));
+        insert(now.minusDays(95));
+        insert(now.minusDays(1));
+        insert(now.minusDays(120));
+    }
+
+    @AfterEach
+    void dropDatabase() {
+        database.shutdown();
+    }
+
+    @Test
+    void deletesExpiredRowsWhenThereAreNoPartitions() throws Exception {
+        LogPartitionManager manager = new LogPartitionManager(database, true, LogPartitionManager.Period.DAY, 3, 90);
+        assertFalse(manager.isPartitioned());
+
+        manager.ensurePartitions();
+        // Entry 4 has expired but is not aggregated yet.
+        assertEquals(2, manager.dropExpired(3));
+        assertEquals(2, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM log_entry", Integer.class));
+
+        assertEquals(1, manager.dropExpired(4));
+        assertEquals(1, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM log_entry", Integer.class));
+    }
+
+    @Test
+    void definesOnePartitionPerPeriodFollowedByPmax() {
+        LogPartitionManager days = partitionedManager(mock(JdbcTemplate.class), LogPartitionManager.Period.DAY);
+        assertEquals("PARTITION p20250623 VALUES LESS THAN ('2025-06-24 00:00:00'), " +
+                        "PARTITION p20250624 VALUES LESS THAN ('2025-06-25 00:00:00'), " +
+                        "PARTITION pmax VALUES LESS THAN (MAXVALUE)",
+                days.definitions(LocalDate.of(2025, 6, 23), LocalDate.of(2025, 6, 24)));
+
+        LogPartitionManager months = partitionedManager(mock(JdbcTemplate.class), LogPartitionManager.Period.MONTH);
+        assertEquals("PARTITION p202512 VALUES LESS THAN ('2026-01-01 00:00:00'), " +
+                        "PARTITION p202601 VALUES LESS THAN ('2026-02-01 00:00:00'), " +
+                        "PARTITION pmax VALUES LESS THAN (MAXVALUE)",
+                months.definitions(LocalDate.of(2025, 12, 1), LocalDate.of(2026, 1, 1)));
+    }
+
+    @Test
+    void parsesPartitionDescriptions() {
+        assertEquals(LocalDate.of(2025, 6, 24), LogPartitionManager.upperBound("'2025-06-24 00:00:00'"));
+        assertNull(LogPartitionManager.upperBound("MAXVALUE"));
+    }
+
+    @Test
+    void partitionsTheTableFromTheRetentionCutoff() {
+        JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+        when(jdbcTemplate.queryForObject(startsWith("SELECT CAST(MIN(timestamp)"), eq(LocalDate.class)))
+                .thenReturn(LocalDate.of(2025, 5, 1));
+        when(jdbcTemplate.queryForObject(startsWith("SELECT COLUMN_TYPE"), eq(String.class))).thenReturn("datetime(6)");
+        LogPartitionManager manager = partitionedManager(jdbcTemplate, LogPartitionManager.Period.DAY, List.of());
+
+        manager.ensurePartitions();
+
+        // Retention of 20 days: the first partition starts on June 3rd, the last is 3 days ahead.
+        InOrder order = inOrder(jdbcTemplate);
+        order.verify(jdbcTemplate).execute("ALTER TABLE log_entry MODIFY timestamp datetime(6) NOT NULL, " +
+                "DROP PRIMARY KEY, ADD PRIMARY KEY (id, timestamp)");
+        order.verify(jdbcTemplate).execute("ALTER TABLE log_entry PARTITION BY RANGE COLUMNS(timestamp) (" +
+                manager.definitions(LocalDate.of(2025, 6, 3), LocalDate.of(2025, 6, 26)) + ")");
+    }
+
+    @Test
+    void splitsPmaxIntoTheMissingPartitions() {
+        JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+        LogPartitionManager manager = partitionedManager(jdbcTemplate, LogPartitionManager.Period.DAY, List.of(
+                partition(20), partition(21), new LogPartitionManager.Partition("pmax", null)));
+
+        manager.ensurePartitions();
+
+        verify(jdbcTemplate).execute("ALTER TABLE log_entry REORGANIZE PARTITION pmax INTO (" +
+                manager.definitions(LocalDate.of(2025, 6, 22), LocalDate.of(2025, 6, 26)) + ")");
+    }
+
+    @Test
+    void leavesPartitionsThatAreAlreadyAheadAlone() {
+        JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+        LogPartitionManager manager = partitionedManager(jdbcTemplate, LogPartitionManager.Period.DAY, List.of(
+                partition(25), partition(26), new LogPartitionManager.Partition("pmax", null)));
+
+        manager.ensurePartitions();
+
+        verify(jdbcTemplate, never()).execute(anyString());
+    }
+
+    @Test
+    void dropsExpiredPartitionsUpToTheFirstOneNotAggregated() {
+        JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+        when(jdbcTemplate.queryForObject("SELECT MAX(id) FROM log_entry PARTITION (p20250601)", Long.class))
+                .thenReturn(10L);
+        when(jdbcTemplate.queryForObject("SELECT MAX(id) FROM log_entry PARTITION (p20250602)", Long.class))
+                .thenReturn(20L);
+        // Retention of 20 days: June 1st and 2nd have expired, June 3rd has not.
+        LogPartitionManager manager = partitionedManager(jdbcTemplate, LogPartitionManager.Period.DAY, List.of(
+                partition(1), partition(2), partition(3), new LogPartitionManager.Partition("pmax", null)));
+
+        assertEquals(0, manager.dropExpired(5));
+        verify(jdbcTemplate, never()).execute(anyString());
+
+        assertEquals(1, manager.dropExpired(15));
+        verify(jdbcTemplate).execute("ALTER TABLE log_entry DROP PARTITION p20250601");
+
+        assertEquals(2, manager.dropExpired(20));
+        verify(jdbcTemplate).execute("ALTER TABLE log_entry DROP PARTITION p20250601, p20250602");
+        verify(jdbcTemplate, never()).queryForObject("SELECT MAX(id) FROM log_entry PARTITION (p20250603)", Long.class);
+    }
+
+    private static LogPartitionManager partitionedManager(JdbcTemplate jdbcTemplate, LogPartitionManager.Period period) {
+        return new LogPartitionManager(jdbcTemplate, true, period, 3, 20, JUNE_23);
+    }
+
+    // Stubs the information_schema lookup, which only MySQL has.
+    private static LogPartitionManager partitionedManager(JdbcTemplate jdbcTemplate, LogPartitionManager.Period period,
+                                                          List<LogPartitionManager.Partition> partitions) {
+        LogPartitionManager manager = spy(partitionedManager(jdbcTemplate, period));
+        doReturn(partitions).when(manager).partitions();
+        return manager;
+    }
+
+    // The daily partition of a June 2025 day.
+    private static LogPartitionManager.Partition partition(int day) {
+        LocalDate start = LocalDate.of(2025, 6, day);
+        return new LogPartitionManager.Partition(LogPartitionManager.Period.DAY.partitionName(start), start.plusDays(1));
+    }
+
+    private void insert(LocalDateTime timestamp) {
+        jdbcTemplate.update("INSERT INTO log_entry (timestamp, level_code, component_code, message) VALUES (?, 1, 2, 'x')",
+                timestamp);
+    }
+}
@@ -0,0 +1,58 @@
+package com.learn.springbatchexample.logs;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class LogSummaryCacheTests {
+
+    private static final LocalDate JUNE_23 = LocalDate.of(2025, 6, 23);
+    private static final LocalDate JUNE_24 = LocalDate.of(2025, 6, 24);
+
+    private LogQueryRepository repository;
+    private SimpleMeterRegistry meterRegistry;
+    private LogSummaryCache cache;
+
+    @BeforeEach
+    void createCache() {
+        repository = mock(LogQueryRepository.class);
+        when(repository.findSummaries(any(), any(), any(), anyLong(), anyInt()))
+                .thenAnswer(invocation -> new KeysetPage<LogSummary>(List.of(), null));
+        meterRegistry = new SimpleMeterRegistry();
+        cache = new LogSummaryCache(repository, meterRegistry, 100, 60);
+    }
+
+    @Test
+    void servesRepeatedQueriesFromTheCache() {
+        cache.findSummaries("ERROR", null, null, 0, 100);
+        cache.findSummaries("ERROR", null, null, 0, 100);
+
+        verify(repository, times(1)).findSummaries("ERROR", null, null, 0, 100);
+        assertEquals(1, cache.stats().hitCount());
+        assertEquals(1, cache.stats().missCount());
+        assertEquals(1, meterRegistry.get("cache.gets").tag("cache", "logSummary").tag("result", "hit")
+                .functionCounter().count());
+    }
+
+    @Test
+    void evictsOnlyPagesCoveringATouchedKey() {
+        cache.findSummaries("ERROR", null, null, 0, 100);
+        cache.findSummaries("INFO", null, null, 0, 100);
+        cache.findSummaries(null, JUNE_24, null, 0, 100);
+
+        cache.invalidate(List.of(new LogSummaryCache.SummaryKey("ERROR", JUNE_23)));
+
+        cache.findSummaries("ERROR", null, null, 0, 100);
+        cache.findSummaries("INFO", null, null, 0, 100);
+        cache.findSummaries(null, JUNE_24, null, 0, 100);
+        verify(repository, times(2)).findSummaries("ERROR", null, null, 0, 100);
+        verify(repository, times(1)).findSummaries("INFO", null, null, 0, 100);
+        verify(repository, times(1)).findSummaries(null, JUNE_24, null, 0, 100);
+    }
+}
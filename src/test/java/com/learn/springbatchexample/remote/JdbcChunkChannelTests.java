@@ -0,0 +1,94 @@
+package com.learn.springbatchexample.remote;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JdbcChunkChannelTests {
+
+    private EmbeddedDatabase database;
+    private JdbcTemplate jdbcTemplate;
+    private JdbcChunkChannel channel;
+
+    @BeforeEach
+    void createDatabase() {
+        database = new EmbeddedDatabaseBuilder()
+                .setType(EmbeddedDatabaseType.H2)
+                .generateUniqueName(true)
+                .build();
+        jdbcTemplate = new JdbcTemplate(database);
+        jdbcTemplate.execute("CREATE TABLE chunk_request (id BIGINT AUTO_INCREMENT PRIMARY KEY, " +
+                "step_key VARCHAR(128) NOT NULL, first_id BIGINT, last_id BIGINT, item_count INT, " +
+                "status VARCHAR(16) NOT NULL, worker VARCHAR(128), attempts INT, claimed_at TIMESTAMP, " +
+                "completed_at TIMESTAMP, read_count BIGINT, write_count BIGINT, filter_count BIGINT, " +
+                "error VARCHAR(1024))");
+        channel = new JdbcChunkChannel(database);
+    }
+
+    @AfterEach
+    void dropDatabase() {
+        database.shutdown();
+    }
+
+    @Test
+    void handsEachRequestToOneWorkerAndReturnsItsReply() {
+        channel.send("1:step", 1, 500, 500);
+        channel.send("1:step", 501, 1000, 500);
+
+        ChunkRequest first = channel.claim("a");
+        ChunkRequest second = channel.claim("b");
+        assertEquals(1, first.getFirstId());
+        assertEquals(501, second.getFirstId());
+        assertNull(channel.claim("c"));
+
+        channel.complete(first, 500, 490, 10);
+        assertEquals(2, channel.outstanding("1:step"));
+        List<ChunkRequest> replies = channel.replies("1:step");
+        assertEquals(1, replies.size());
+        assertEquals(490, replies.get(0).getWriteCount());
+        assertEquals(10, replies.get(0).getFilterCount());
+
+        channel.collected(replies);
+        assertEquals(1, channel.outstanding("1:step"));
+        assertTrue(channel.replies("1:step").isEmpty());
+    }
+
+    @Test
+    void rejectsTheReplyOfAWorkerWhoseLeaseExpired() {
+        channel.send("1:step", 1, 500, 500);
+        ChunkRequest lost = channel.claim("a");
+
+        assertEquals(1, channel.requeueExpired("1:step", Duration.ofSeconds(-1)));
+        ChunkRequest reclaimed = channel.claim("b");
+        assertEquals(lost.getId(), reclaimed.getId());
+        assertEquals(2, reclaimed.getAttempts());
+
+        assertThrows(IllegalStateException.class, () -> channel.complete(lost, 500, 500, 0));
+        channel.complete(reclaimed, 500, 500, 0);
+        assertEquals(ChunkRequest.DONE, channel.replies("1:step").get(0).getStatus());
+    }
+
+    @Test
+    void failsARequestOnceItRanOutOfAttempts() {
+        channel.send("1:step", 1, 500, 500);
+
+        channel.fail(channel.claim("a"), "first", 2);
+        assertTrue(channel.replies("1:step").isEmpty());
+        channel.fail(channel.claim("a"), "second", 2);
+        ChunkRequest failed = channel.replies("1:step").get(0);
+        assertEquals(ChunkRequest.FAILED, failed.getStatus());
+        assertEquals("second", failed.getError());
+
+        assertEquals(1, channel.retryFailed("1:step"));
+        assertEquals(1, channel.claim("a").getAttempts());
+    }
+}
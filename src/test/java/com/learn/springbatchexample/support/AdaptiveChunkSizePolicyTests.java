@@ -0,0 +1,95 @@
+package com.learn.springbatchexample.support;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.scope.context.ChunkContext;
+import org.springframework.batch.core.scope.context.StepContext;
+import org.springframework.batch.repeat.RepeatContext;
+import org.springframework.batch.test.MetaDataInstanceFactory;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AdaptiveChunkSizePolicyTests {
+
+    private SimpleMeterRegistry meterRegistry;
+    private StepExecution stepExecution;
+    private ChunkContext chunkContext;
+
+    @BeforeEach
+    void createStep() {
+        meterRegistry = new SimpleMeterRegistry();
+        stepExecution = MetaDataInstanceFactory.createStepExecution();
+        chunkContext = new ChunkContext(new StepContext(stepExecution));
+    }
+
+    @Test
+    void growsFastChunksUpToTheMaximum() {
+        // Chunks take far less than the 10 s target, so every chunk may double the size.
+        AdaptiveChunkSizePolicy policy = new AdaptiveChunkSizePolicy(meterRegistry, true, 100, 10, 1000, 10_000);
+        policy.beforeStep(stepExecution);
+
+        assertEquals(100, runChunk(policy));
+        assertEquals(200, runChunk(policy));
+        assertEquals(400, runChunk(policy));
+        assertEquals(800, runChunk(policy));
+        assertEquals(1000, runChunk(policy));
+        assertEquals(1000, stepExecution.getExecutionContext().getInt("adaptiveChunk.size"));
+        assertEquals(5, meterRegistry.get("batch.chunk.size").summary().count());
+    }
+
+    @Test
+    void halvesTheSizeAfterARollbackButNotBelowTheMinimum() {
+        AdaptiveChunkSizePolicy policy = new AdaptiveChunkSizePolicy(meterRegistry, true, 40, 10, 1000, 10_000);
+        policy.beforeStep(stepExecution);
+
+        policy.afterChunkError(chunkContext);
+        assertEquals(20, runChunk(policy));
+        policy.afterChunkError(chunkContext);
+        policy.afterChunkError(chunkContext);
+        assertEquals(10, chunkSize(policy));
+    }
+
+    @Test
+    void keepsTheInitialSizeWhenNotAdaptive() {
+        AdaptiveChunkSizePolicy policy = new AdaptiveChunkSizePolicy(meterRegistry, false, 50, 10, 1000, 10_000);
+        policy.beforeStep(stepExecution);
+
+        assertEquals(50, runChunk(policy));
+        assertEquals(50, runChunk(policy));
+    }
+
+    @Test
+    void usesTheInitialSizeWithoutKeepingStateOnThreadsWithoutAStep() {
+        AdaptiveChunkSizePolicy policy = new AdaptiveChunkSizePolicy(meterRegistry, true, 100, 10, 1000, 10_000);
+
+        assertEquals(100, runChunk(policy));
+        assertEquals(100, runChunk(policy));
+        assertFalse(stepExecution.getExecutionContext().containsKey("adaptiveChunk.size"));
+        assertTrue(meterRegistry.find("batch.chunk.size").summaries().isEmpty());
+
+        policy.beforeStep(stepExecution);
+        assertEquals(100, runChunk(policy));
+        assertEquals(200, runChunk(policy));
+    }
+
+    // Reads items until the policy completes the chunk, as the chunk RepeatTemplate does.
+    private int runChunk(AdaptiveChunkSizePolicy policy) {
+        policy.beforeChunk(chunkContext);
+        int items = chunkSize(policy);
+        stepExecution.setReadCount(stepExecution.getReadCount() + items);
+        policy.afterChunk(chunkContext);
+        return items;
+    }
+
+    private int chunkSize(AdaptiveChunkSizePolicy policy) {
+        RepeatContext context = policy.start(null);
+        int items = 0;
+        while (!policy.isComplete(context)) {
+            policy.update(context);
+            items++;
+        }
+        return items;
+    }
+}
@@ -0,0 +1,41 @@
+package com.learn.springbatchexample.support;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BloomFilterTests {
+
+    @Test
+    void neverMissesAKeyThatWasPut() {
+        BloomFilter filter = new BloomFilter(10_000, 0.01);
+        for (int i = 0; i < 10_000; i++) {
+            filter.put("123456789|2025-06-23T00:00|" + i + ".00|" + (i + 2));
+        }
+        for (int i = 0; i < 10_000; i++) {
+            assertTrue(filter.mightContain("123456789|2025-06-23T00:00|" + i + ".00|" + (i + 2)));
+        }
+    }
+
+    @Test
+    void keepsFalsePositivesNearTheConfiguredRate() {
+        BloomFilter filter = new BloomFilter(10_000, 0.01);
+        for (int i = 0; i < 10_000; i++) {
+            filter.put("stored-" + i);
+        }
+        int falsePositives = 0;
+        for (int i = 0; i < 100_000; i++) {
+            if (filter.mightContain("absent-" + i)) {
+                falsePositives++;
+            }
+        }
+        assertTrue(falsePositives < 2_000, "false positives: " + falsePositives);
+    }
+
+    @Test
+    void sizesAnEmptyFilter() {
+        BloomFilter filter = new BloomFilter(0, 0.01);
+        assertFalse(filter.mightContain("anything"));
+        assertTrue(filter.bitCount() >= 64);
+    }
+}
@@ -0,0 +1,49 @@
+package com.learn.springbatchexample.support;
+
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLTransientConnectionException;
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class ConnectionPermitDataSourceTests {
+
+    @Test
+    void closeGivesThePermitBackOnce() throws Exception {
+        DataSource target = mock(DataSource.class);
+        when(target.getConnection()).thenAnswer(invocation -> mock(Connection.class));
+        ConnectionPermitDataSource dataSource = new ConnectionPermitDataSource(target, 1, 10);
+
+        Connection connection = dataSource.getConnection();
+        assertEquals(0, dataSource.availablePermits());
+        assertThrows(SQLTransientConnectionException.class, dataSource::getConnection);
+
+        connection.close();
+        connection.close();
+        assertEquals(1, dataSource.availablePermits());
+    }
+
+    @Test
+    void connectionsAreEqualOnlyToThemselves() throws Exception {
+        Connection shared = mock(Connection.class);
+        DataSource target = mock(DataSource.class);
+        when(target.getConnection()).thenReturn(shared);
+        ConnectionPermitDataSource dataSource = new ConnectionPermitDataSource(target, 2, 10);
+
+        Connection first = dataSource.getConnection();
+        Connection second = dataSource.getConnection();
+
+        assertEquals(first, first);
+        assertNotEquals(first, second);
+        assertNotEquals(first, shared);
+        assertEquals(System.identityHashCode(first), first.hashCode());
+        Set<Connection> connections = new HashSet<>(Set.of(first));
+        assertFalse(connections.contains(second));
+        verifyNoInteractions(shared);
+    }
+}